@@ -16,11 +16,7 @@ public class ApplyController {
      */
     public ApplyController(SettingsModel settingsModel, SettingsWindow settingsWindow) {
         settingsWindow.getApplyButton().addActionListener((e) -> {
-            if (settingsWindow.getDifficultyComboBox().getSelectedItem().equals("Easy")) {
-                settingsModel.setDifficulty(SettingsModel.EASY_DIFFICULTY);
-            } else {
-                settingsModel.setDifficulty(SettingsModel.HARD_DIFFICULTY);
-            }
+            settingsModel.setCorpus((String) settingsWindow.getCorpusComboBox().getSelectedItem());
             String durationText = settingsWindow.getDurationField().getText();
             if (durationText.matches("\\d:[0-5]\\d") && !durationText.equals("0:00")) {
                 String[] part = durationText.split(":");
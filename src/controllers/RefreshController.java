@@ -1,17 +1,22 @@
 package controllers;
 
-import models.ClockModel;
-import models.StatsModel;
-import models.TextBoxModel;
-import models.UserInputModel;
+import models.*;
+import structs.Corpus;
+import structs.WordDatabase;
 
 import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A controller that modifies models related to clicking the
  * refresh button.
  */
 public class RefreshController {
+    private ClockModel clockModel;
+    private TextBoxModel textBoxModel;
+    private UserInputModel userInputModel;
+    private StatsModel statsModel;
+    private CompletableFuture<Corpus> pendingCorpus;
 
     /**
      * Creates the controller and adds the event to the refresh button.
@@ -23,11 +28,72 @@ public class RefreshController {
      * @param refreshButton  the refresh button
      */
     public RefreshController(ClockModel clockModel, TextBoxModel textBoxModel, UserInputModel userInputModel, StatsModel statsModel, JButton refreshButton) {
-        refreshButton.addActionListener((e) -> {
-            clockModel.reset();
-            textBoxModel.reset();
-            userInputModel.reset();
-            statsModel.reset();
-        });
+        this.clockModel = clockModel;
+        this.textBoxModel = textBoxModel;
+        this.userInputModel = userInputModel;
+        this.statsModel = statsModel;
+        refreshButton.addActionListener((e) -> refresh());
+    }
+
+    /**
+     * Starts a new typing test with words from the corpus chosen in the
+     * settings. If the corpus is not loaded yet, a loading placeholder is
+     * shown and the test starts once the corpus has been loaded in the
+     * background. Only the latest refresh starts a test; a load started
+     * by an earlier refresh is ignored when it completes.
+     */
+    public void refresh() {
+        load(SettingsModel.getInstance().getCorpus());
+    }
+
+    /**
+     * Starts a new typing test with words from a given corpus, loading it
+     * in the background if needed. The running test, if any, is stopped
+     * before the loading placeholder is shown, so that it cannot end while
+     * the corpus loads. If the corpus fails to load, the default corpus is
+     * tried instead, and if that fails too the error is shown in place of
+     * the words.
+     *
+     * @param name the name of the corpus
+     */
+    private void load(String name) {
+        CompletableFuture<Corpus> corpus = WordDatabase.getInstance().loadCorpus(name);
+        pendingCorpus = corpus;
+        if (corpus.isDone() && !corpus.isCompletedExceptionally()) {
+            pendingCorpus = null;
+            reset(corpus.join());
+            return;
+        }
+        clockModel.reset();
+        statsModel.reset();
+        userInputModel.setCurrentlyAcceptingInput(false);
+        textBoxModel.setLoading();
+        corpus.whenComplete((loaded, error) -> SwingUtilities.invokeLater(() -> {
+            if (corpus != pendingCorpus)
+                return;
+            pendingCorpus = null;
+            if (error == null) {
+                reset(loaded);
+            } else {
+                error.printStackTrace();
+                String defaultName = WordDatabase.getInstance().getDefaultCorpusName();
+                if (!name.equals(defaultName))
+                    load(defaultName);
+                else
+                    textBoxModel.setError("Could not load words from " + name);
+            }
+        }));
+    }
+
+    /**
+     * Resets every model of the typing test.
+     *
+     * @param corpus the corpus to draw words from
+     */
+    private void reset(Corpus corpus) {
+        clockModel.reset();
+        textBoxModel.reset(corpus);
+        userInputModel.reset();
+        statsModel.reset();
     }
 }
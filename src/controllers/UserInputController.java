@@ -5,9 +5,12 @@ import models.ClockModel;
 import models.StatsModel;
 import models.TextBoxModel;
 import models.UserInputModel;
+import structs.InputLatency;
 
 import javax.swing.*;
 import javax.swing.text.AbstractDocument;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 
 /**
  * A controller that modifies models related to typing in the
@@ -16,6 +19,7 @@ import javax.swing.text.AbstractDocument;
 public class UserInputController {
     /**
      * Creates the controller and adds the the filter to the given text field.
+     * Typed keys are stamped as they arrive to measure input latency.
      *
      * @param userInputModel the user input model
      * @param textBoxModel   the text box model
@@ -25,5 +29,10 @@ public class UserInputController {
      */
     public UserInputController(UserInputModel userInputModel, TextBoxModel textBoxModel, ClockModel clockModel, StatsModel statsModel, JTextField inputField) {
         ((AbstractDocument) inputField.getDocument()).setDocumentFilter(new UserInputFilter(userInputModel, textBoxModel, clockModel, statsModel));
+        inputField.addKeyListener(new KeyAdapter() {
+            public void keyTyped(KeyEvent e) {
+                InputLatency.keyTyped();
+            }
+        });
     }
 }
@@ -0,0 +1,91 @@
+package engine;
+
+import structs.AliasSampler;
+import structs.Corpus;
+import structs.WordState;
+
+import java.util.SplittableRandom;
+
+/**
+ * A source of words drawn from a corpus with a seeded random number
+ * generator, without laying them out. Words are drawn in the same order
+ * as the words shown by a typing test with the same corpus and seed, so a
+ * test can be replayed without a display.
+ */
+public class CorpusWordSource implements WordSource {
+    private Corpus corpus;
+    private AliasSampler sampler;
+    private SplittableRandom random;
+    private String currentWord;
+    private byte currentWordState;
+    private int position;
+
+    /**
+     * Creates a source of words drawn from a given corpus with a given seed.
+     *
+     * @param corpus the corpus to draw words from
+     * @param seed   the seed to draw words with
+     */
+    public CorpusWordSource(Corpus corpus, long seed) {
+        this.corpus = corpus;
+        sampler = corpus.getSampler();
+        random = new SplittableRandom(seed);
+        currentWord = drawWord();
+        currentWordState = WordState.CURRENT;
+    }
+
+    /**
+     * Draws the next word from the corpus.
+     *
+     * @return the next word
+     */
+    private String drawWord() {
+        return corpus.getWord(sampler.sample(random.nextDouble()));
+    }
+
+    /**
+     * Returns the word currently being typed.
+     *
+     * @return the word currently being typed
+     */
+    public String getCurrentWord() {
+        return currentWord;
+    }
+
+    /**
+     * Returns the state of the word currently being typed.
+     *
+     * @return the state of the word currently being typed
+     */
+    public byte getCurrentWordState() {
+        return currentWordState;
+    }
+
+    /**
+     * Sets the state of the word currently being typed.
+     *
+     * @param state the new state of the word
+     */
+    public void setCurrentWordState(byte state) {
+        currentWordState = state;
+    }
+
+    /**
+     * Draws the next word and moves on to it.
+     */
+    public void nextWord() {
+        currentWord = drawWord();
+        currentWordState = WordState.PENDING;
+        position++;
+    }
+
+    /**
+     * Returns the position of the word currently being typed from the
+     * start of the test.
+     *
+     * @return the position of the word currently being typed
+     */
+    public int getPosition() {
+        return position;
+    }
+}
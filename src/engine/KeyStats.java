@@ -0,0 +1,305 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Per-key and per-pair analytics of the keystrokes of one or more typing
+ * tests, kept in dense primitive arrays. Keystrokes are attributed to the
+ * character the user should have typed: every printable ASCII character
+ * has a slot of its own and every other character shares
+ * {@link KeyStats#OTHER}, and every pair of slots has a slot of its own.
+ * <p>
+ * For each key and each pair of keys, the number of attempts and errors
+ * are counted, along with the number, sum and sum of squares of the
+ * intervals between a key and the key before it, from which the mean and
+ * standard deviation of the intervals follow. Recording a keystroke is a
+ * handful of array updates and allocates nothing, and two accumulators are
+ * merged by adding their arrays.
+ */
+public class KeyStats {
+    private static final char FIRST = ' ', LAST = '~';
+
+    /**
+     * The slot shared by every character other than printable ASCII.
+     */
+    public static final int OTHER = LAST - FIRST + 1;
+
+    /**
+     * The number of slots for single keys.
+     */
+    public static final int KEY_COUNT = OTHER + 1;
+
+    private int[] keyAttempts, keyErrors, keyIntervals;
+    private long[] keyIntervalSums;
+    private double[] keyIntervalSquares;
+    private int[] pairAttempts, pairErrors, pairIntervals;
+    private long[] pairIntervalSums;
+    private double[] pairIntervalSquares;
+
+    /**
+     * Creates an empty accumulator.
+     */
+    public KeyStats() {
+        keyAttempts = new int[KEY_COUNT];
+        keyErrors = new int[KEY_COUNT];
+        keyIntervals = new int[KEY_COUNT];
+        keyIntervalSums = new long[KEY_COUNT];
+        keyIntervalSquares = new double[KEY_COUNT];
+        pairAttempts = new int[KEY_COUNT * KEY_COUNT];
+        pairErrors = new int[KEY_COUNT * KEY_COUNT];
+        pairIntervals = new int[KEY_COUNT * KEY_COUNT];
+        pairIntervalSums = new long[KEY_COUNT * KEY_COUNT];
+        pairIntervalSquares = new double[KEY_COUNT * KEY_COUNT];
+    }
+
+    /**
+     * Returns the slot of a character.
+     *
+     * @param c the character
+     * @return the slot of the character
+     */
+    public static int getKey(char c) {
+        return c >= FIRST && c <= LAST ? c - FIRST : OTHER;
+    }
+
+    /**
+     * Returns the slot of a pair of keys.
+     *
+     * @param previous the slot of the first key
+     * @param key      the slot of the second key
+     * @return the slot of the pair
+     */
+    private static int getPair(int previous, int key) {
+        return previous * KEY_COUNT + key;
+    }
+
+    /**
+     * Records an attempt at typing a character.
+     *
+     * @param previous the character expected before, or a negative number
+     *                 if the attempt does not follow a correct keystroke
+     * @param expected the character that should have been typed
+     * @param correct  true if the character was typed correctly
+     * @param interval the time since the keystroke before in nanoseconds,
+     *                 or a negative number if it is unknown
+     */
+    public void record(int previous, char expected, boolean correct, long interval) {
+        int key = getKey(expected);
+        keyAttempts[key]++;
+        if (!correct)
+            keyErrors[key]++;
+        if (interval >= 0) {
+            keyIntervals[key]++;
+            keyIntervalSums[key] += interval;
+            keyIntervalSquares[key] += (double) interval * interval;
+        }
+        if (previous < 0)
+            return;
+        int pair = getPair(getKey((char) previous), key);
+        pairAttempts[pair]++;
+        if (!correct)
+            pairErrors[pair]++;
+        if (interval >= 0) {
+            pairIntervals[pair]++;
+            pairIntervalSums[pair] += interval;
+            pairIntervalSquares[pair] += (double) interval * interval;
+        }
+    }
+
+    /**
+     * Adds every count of another accumulator to this one.
+     *
+     * @param other the other accumulator
+     */
+    public void merge(KeyStats other) {
+        add(keyAttempts, other.keyAttempts);
+        add(keyErrors, other.keyErrors);
+        add(keyIntervals, other.keyIntervals);
+        add(pairAttempts, other.pairAttempts);
+        add(pairErrors, other.pairErrors);
+        add(pairIntervals, other.pairIntervals);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keyIntervalSums[i] += other.keyIntervalSums[i];
+            keyIntervalSquares[i] += other.keyIntervalSquares[i];
+        }
+        for (int i = 0; i < KEY_COUNT * KEY_COUNT; i++) {
+            pairIntervalSums[i] += other.pairIntervalSums[i];
+            pairIntervalSquares[i] += other.pairIntervalSquares[i];
+        }
+    }
+
+    /**
+     * Adds every element of an array to the same element of another.
+     *
+     * @param to   the array added to
+     * @param from the array to add
+     */
+    private static void add(int[] to, int[] from) {
+        for (int i = 0; i < to.length; i++)
+            to[i] += from[i];
+    }
+
+    /**
+     * Resets every count to zero.
+     */
+    public void clear() {
+        Arrays.fill(keyAttempts, 0);
+        Arrays.fill(keyErrors, 0);
+        Arrays.fill(keyIntervals, 0);
+        Arrays.fill(keyIntervalSums, 0);
+        Arrays.fill(keyIntervalSquares, 0);
+        Arrays.fill(pairAttempts, 0);
+        Arrays.fill(pairErrors, 0);
+        Arrays.fill(pairIntervals, 0);
+        Arrays.fill(pairIntervalSums, 0);
+        Arrays.fill(pairIntervalSquares, 0);
+    }
+
+    /**
+     * Returns the number of attempts at typing a character.
+     *
+     * @param c the character
+     * @return the number of attempts at typing the character
+     */
+    public int getAttempts(char c) {
+        return keyAttempts[getKey(c)];
+    }
+
+    /**
+     * Returns the number of times a character was mistyped.
+     *
+     * @param c the character
+     * @return the number of times the character was mistyped
+     */
+    public int getErrors(char c) {
+        return keyErrors[getKey(c)];
+    }
+
+    /**
+     * Returns the number of intervals measured before a character.
+     *
+     * @param c the character
+     * @return the number of intervals measured before the character
+     */
+    public int getIntervalCount(char c) {
+        return keyIntervals[getKey(c)];
+    }
+
+    /**
+     * Returns the sum of the intervals measured before a character.
+     *
+     * @param c the character
+     * @return the sum of the intervals in nanoseconds
+     */
+    public long getIntervalSum(char c) {
+        return keyIntervalSums[getKey(c)];
+    }
+
+    /**
+     * Returns the mean interval before a character.
+     *
+     * @param c the character
+     * @return the mean interval in nanoseconds, or 0 if none was measured
+     */
+    public double getMeanInterval(char c) {
+        int key = getKey(c);
+        return mean(keyIntervals[key], keyIntervalSums[key]);
+    }
+
+    /**
+     * Returns the standard deviation of the intervals before a character.
+     *
+     * @param c the character
+     * @return the standard deviation in nanoseconds, or 0 if none was measured
+     */
+    public double getIntervalDeviation(char c) {
+        int key = getKey(c);
+        return deviation(keyIntervals[key], keyIntervalSums[key], keyIntervalSquares[key]);
+    }
+
+    /**
+     * Returns the number of attempts at typing a character right after
+     * another.
+     *
+     * @param previous the character before
+     * @param c        the character
+     * @return the number of attempts at typing the pair
+     */
+    public int getPairAttempts(char previous, char c) {
+        return pairAttempts[getPair(getKey(previous), getKey(c))];
+    }
+
+    /**
+     * Returns the number of times a character was mistyped right after
+     * another.
+     *
+     * @param previous the character before
+     * @param c        the character
+     * @return the number of times the pair was mistyped
+     */
+    public int getPairErrors(char previous, char c) {
+        return pairErrors[getPair(getKey(previous), getKey(c))];
+    }
+
+    /**
+     * Returns the number of intervals measured between two characters.
+     *
+     * @param previous the character before
+     * @param c        the character
+     * @return the number of intervals measured between the characters
+     */
+    public int getPairIntervalCount(char previous, char c) {
+        return pairIntervals[getPair(getKey(previous), getKey(c))];
+    }
+
+    /**
+     * Returns the mean interval between two characters.
+     *
+     * @param previous the character before
+     * @param c        the character
+     * @return the mean interval in nanoseconds, or 0 if none was measured
+     */
+    public double getPairMeanInterval(char previous, char c) {
+        int pair = getPair(getKey(previous), getKey(c));
+        return mean(pairIntervals[pair], pairIntervalSums[pair]);
+    }
+
+    /**
+     * Returns the standard deviation of the intervals between two characters.
+     *
+     * @param previous the character before
+     * @param c        the character
+     * @return the standard deviation in nanoseconds, or 0 if none was measured
+     */
+    public double getPairIntervalDeviation(char previous, char c) {
+        int pair = getPair(getKey(previous), getKey(c));
+        return deviation(pairIntervals[pair], pairIntervalSums[pair], pairIntervalSquares[pair]);
+    }
+
+    /**
+     * Returns the mean of a number of values given their sum.
+     *
+     * @param count the number of values
+     * @param sum   the sum of the values
+     * @return the mean, or 0 if there are no values
+     */
+    private static double mean(int count, long sum) {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the standard deviation of a number of values given their sum
+     * and sum of squares.
+     *
+     * @param count   the number of values
+     * @param sum     the sum of the values
+     * @param squares the sum of the squares of the values
+     * @return the standard deviation, or 0 if there are no values
+     */
+    private static double deviation(int count, long sum, double squares) {
+        if (count == 0)
+            return 0;
+        double mean = (double) sum / count;
+        return Math.sqrt(Math.max(squares / count - mean * mean, 0));
+    }
+}
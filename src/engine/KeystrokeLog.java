@@ -0,0 +1,150 @@
+package engine;
+
+/**
+ * A log of every keystroke of a typing test kept in preallocated
+ * primitive arrays used as a ring buffer. Each keystroke records when it
+ * happened, the character typed, the position of the word it was typed
+ * in and whether it was correct, so recording allocates nothing. Once the
+ * log is full the oldest keystrokes are overwritten.
+ * <p>
+ * Keystrokes are identified by their index from the start of the log, and
+ * only the last {@link KeystrokeLog#size()} of them can be read.
+ */
+public class KeystrokeLog {
+    public static final byte
+            CORRECT = 0,
+            INCORRECT = 1,
+            BACKSPACE = 2;
+
+    /**
+     * The character recorded for a backspace.
+     */
+    public static final char BACKSPACE_CHAR = '\b';
+
+    private long[] times;
+    private char[] chars;
+    private int[] words;
+    private byte[] flags;
+    private int mask;
+    private long count;
+
+    /**
+     * Creates an empty log holding at least a given number of keystrokes.
+     *
+     * @param capacity the minimum number of keystrokes held, rounded up
+     *                 to a power of two
+     */
+    public KeystrokeLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        times = new long[size];
+        chars = new char[size];
+        words = new int[size];
+        flags = new byte[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Records a keystroke, overwriting the oldest one if the log is full.
+     *
+     * @param time the time of the keystroke in nanoseconds
+     * @param c    the typed character, or {@link KeystrokeLog#BACKSPACE_CHAR}
+     * @param word the position of the word the keystroke was typed in
+     * @param flag one of {@link KeystrokeLog#CORRECT},
+     *             {@link KeystrokeLog#INCORRECT} or {@link KeystrokeLog#BACKSPACE}
+     */
+    public void record(long time, char c, int word, byte flag) {
+        int slot = (int) count & mask;
+        times[slot] = time;
+        chars[slot] = c;
+        words[slot] = word;
+        flags[slot] = flag;
+        count++;
+    }
+
+    /**
+     * Removes every keystroke.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Returns the number of keystrokes recorded since the log was last
+     * cleared, including overwritten ones.
+     *
+     * @return the number of keystrokes recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of keystrokes that can still be read.
+     *
+     * @return the number of keystrokes that can still be read
+     */
+    public int size() {
+        return (int) Math.min(count, times.length);
+    }
+
+    /**
+     * Returns the index of the oldest keystroke that can still be read.
+     *
+     * @return the index of the oldest keystroke that can still be read
+     */
+    public long getFirstIndex() {
+        return count - size();
+    }
+
+    /**
+     * Returns the time of a keystroke in nanoseconds.
+     *
+     * @param index the index of the keystroke
+     * @return the time of the keystroke in nanoseconds
+     */
+    public long getTime(long index) {
+        return times[slot(index)];
+    }
+
+    /**
+     * Returns the character of a keystroke.
+     *
+     * @param index the index of the keystroke
+     * @return the character of the keystroke
+     */
+    public char getChar(long index) {
+        return chars[slot(index)];
+    }
+
+    /**
+     * Returns the position of the word a keystroke was typed in.
+     *
+     * @param index the index of the keystroke
+     * @return the position of the word the keystroke was typed in
+     */
+    public int getWord(long index) {
+        return words[slot(index)];
+    }
+
+    /**
+     * Returns whether a keystroke was correct, incorrect or a backspace.
+     *
+     * @param index the index of the keystroke
+     * @return the flag of the keystroke
+     */
+    public byte getFlag(long index) {
+        return flags[slot(index)];
+    }
+
+    /**
+     * Returns the slot of a keystroke that can still be read.
+     *
+     * @param index the index of the keystroke
+     * @return the slot of the keystroke in the arrays
+     */
+    private int slot(long index) {
+        if (index < getFirstIndex() || index >= count)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Count: " + count + ", Size: " + size());
+        return (int) index & mask;
+    }
+}
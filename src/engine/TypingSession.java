@@ -0,0 +1,332 @@
+package engine;
+
+import structs.Clock;
+import structs.InputMatcher;
+import structs.WordState;
+
+/**
+ * The rules of a typing test, independent of how keystrokes arrive and
+ * how the words are shown. A session matches typed characters against the
+ * words of a {@link WordSource}, marks each word as it is typed and
+ * submitted, and counts correct and wrong words and keystrokes.
+ * <p>
+ * A session does nothing but arithmetic on its own fields and calls on its
+ * word source, so it can be driven by a text field, a replay of recorded
+ * keystrokes or a benchmark alike. It is not thread safe.
+ * <p>
+ * If given a {@link KeystrokeLog}, the session records every keystroke in
+ * it with the time it was typed, read from the {@link Clock} of the session
+ * if it has one and from {@link System#nanoTime()} otherwise. If given
+ * {@link KeyStats}, the session also records every attempt at the
+ * character it expected while the input was still on track, with the
+ * interval since the correct keystroke before it.
+ */
+public class TypingSession {
+    /**
+     * The longest interval between keystrokes recorded in the key stats.
+     * Longer gaps are pauses rather than typing.
+     */
+    private static final long MAX_INTERVAL = 2_000_000_000L;
+
+    private WordSource words;
+    private InputMatcher input;
+    private int correctKeystrokes, wrongKeystrokes;
+    private int correctWords, wrongWords;
+    private int wordIndex;
+    private KeystrokeLog log;
+    private Clock clock;
+    private KeyStats keyStats;
+    private int previousKey;
+    private long previousTime;
+
+    /**
+     * Creates a session typing against the words of a given source.
+     *
+     * @param words the words to type
+     */
+    public TypingSession(WordSource words) {
+        this.words = words;
+        input = new InputMatcher();
+        previousKey = -1;
+    }
+
+    /**
+     * Clears the current input and every count for a new typing test. The
+     * word source is expected to have been reset separately.
+     */
+    public void reset() {
+        input.clear();
+        correctKeystrokes = wrongKeystrokes = correctWords = wrongWords = wordIndex = 0;
+        if (log != null)
+            log.clear();
+        if (keyStats != null)
+            keyStats.clear();
+        previousKey = -1;
+        previousTime = 0;
+    }
+
+    /**
+     * Returns the log keystrokes are recorded in, or null if they are not
+     * recorded.
+     *
+     * @return the log keystrokes are recorded in
+     */
+    public KeystrokeLog getKeystrokeLog() {
+        return log;
+    }
+
+    /**
+     * Sets the log keystrokes are recorded in.
+     *
+     * @param log the log keystrokes are recorded in, or null to stop
+     *            recording them
+     */
+    public void setKeystrokeLog(KeystrokeLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Returns the key stats keystrokes are recorded in, or null if they are
+     * not recorded.
+     *
+     * @return the key stats keystrokes are recorded in
+     */
+    public KeyStats getKeyStats() {
+        return keyStats;
+    }
+
+    /**
+     * Sets the key stats keystrokes are recorded in.
+     *
+     * @param keyStats the key stats keystrokes are recorded in, or null to
+     *                 stop recording them
+     */
+    public void setKeyStats(KeyStats keyStats) {
+        this.keyStats = keyStats;
+    }
+
+    /**
+     * Sets the clock keystrokes are timed with.
+     *
+     * @param clock the clock keystrokes are timed with, or null to time them
+     *              with {@link System#nanoTime()}
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Records a keystroke in the log, if any.
+     *
+     * @param c    the typed character
+     * @param flag whether the keystroke was correct, incorrect or a backspace
+     */
+    private void record(char c, byte flag) {
+        if (log != null)
+            log.record(now(), c, wordIndex, flag);
+    }
+
+    /**
+     * Records an attempt at the character expected after the current input
+     * in the key stats, if any, before the input changes. The character
+     * expected after the whole word is a space. Attempts made once the
+     * input has gone wrong are not recorded, as it is unclear what the
+     * user was trying to type.
+     *
+     * @param c the typed character
+     */
+    private void recordKey(char c) {
+        if (keyStats == null)
+            return;
+        long now = now();
+        if (input.isPrefix()) {
+            String target = input.getTarget();
+            int length = input.length();
+            char expected = length < target.length() ? target.charAt(length) : ' ';
+            boolean correct = c == expected;
+            long interval = now - previousTime;
+            keyStats.record(previousKey, expected, correct, previousKey >= 0 && interval <= MAX_INTERVAL ? interval : -1);
+            previousKey = correct ? expected : -1;
+        } else {
+            previousKey = -1;
+        }
+        previousTime = now;
+    }
+
+    /**
+     * Returns the current time from the clock of the session.
+     *
+     * @return the current time in nanoseconds
+     */
+    private long now() {
+        return clock != null ? clock.nanoTime() : System.nanoTime();
+    }
+
+    /**
+     * Types a single character, submitting the current input if it is a
+     * space.
+     *
+     * @param c the typed character
+     * @return true if the current input was submitted, false otherwise
+     */
+    public boolean onKey(char c) {
+        if (c == ' ')
+            return onSpace();
+        onChar(c);
+        return false;
+    }
+
+    /**
+     * Types every character of a given text in order.
+     *
+     * @param text the typed text
+     * @return the number of words submitted
+     */
+    public int onText(CharSequence text) {
+        int submitted = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (onKey(text.charAt(i)))
+                submitted++;
+        }
+        return submitted;
+    }
+
+    /**
+     * Appends a character other than a space to the current input and
+     * marks the current word as currently correct or wrong.
+     *
+     * @param c the typed character
+     */
+    public void onChar(char c) {
+        String currentWord = words.getCurrentWord();
+        if (input.getTarget() != currentWord)
+            input.setTarget(currentWord);
+        recordKey(c);
+        input.append(c);
+        boolean prefix = input.isPrefix();
+        words.setCurrentWordState(prefix ? WordState.CURRENT : WordState.CURRENT_WRONG);
+        record(c, prefix ? KeystrokeLog.CORRECT : KeystrokeLog.INCORRECT);
+    }
+
+    /**
+     * Submits the current input as the current word and moves on to the
+     * next word, unless nothing has been typed. A correct word counts its
+     * characters and the space as correct keystrokes; a wrong word counts
+     * half its characters and the space as wrong keystrokes.
+     *
+     * @return true if the current input was submitted, false if it was empty
+     */
+    public boolean onSpace() {
+        int inputLength = input.length();
+        if (inputLength == 0)
+            return false;
+        String currentWord = words.getCurrentWord();
+        if (input.getTarget() != currentWord)
+            input.setTarget(currentWord);
+        boolean match = input.isMatch();
+        recordKey(' ');
+        record(' ', match ? KeystrokeLog.CORRECT : KeystrokeLog.INCORRECT);
+        if (match) {
+            words.setCurrentWordState(WordState.CORRECT);
+            correctWords++;
+            correctKeystrokes += inputLength + 1;
+        } else {
+            words.setCurrentWordState(WordState.WRONG);
+            wrongWords++;
+            wrongKeystrokes += inputLength / 2 + 1;
+        }
+        words.nextWord();
+        wordIndex++;
+        words.setCurrentWordState(WordState.CURRENT);
+        input.clear();
+        return true;
+    }
+
+    /**
+     * Removes the last character of the current input, if any.
+     */
+    public void onBackspace() {
+        truncate(input.length() - 1);
+    }
+
+    /**
+     * Removes every character of the current input from a given index
+     * onwards, recording a single backspace if anything was removed.
+     *
+     * @param length the number of characters to keep
+     */
+    public void truncate(int length) {
+        if (length < input.length()) {
+            input.truncate(length);
+            record(KeystrokeLog.BACKSPACE_CHAR, KeystrokeLog.BACKSPACE);
+            if (keyStats != null) {
+                previousKey = -1;
+                previousTime = now();
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the word currently being typed from the
+     * start of the test.
+     *
+     * @return the position of the word currently being typed
+     */
+    public int getWordIndex() {
+        return wordIndex;
+    }
+
+    /**
+     * Returns the number of characters of the current input.
+     *
+     * @return the number of characters of the current input
+     */
+    public int getInputLength() {
+        return input.length();
+    }
+
+    /**
+     * Returns the current input as a String.
+     *
+     * @return the current input as a String
+     */
+    public String getInput() {
+        return input.toString();
+    }
+
+    /**
+     * Returns the number of correct keystrokes.
+     *
+     * @return the number of correct keystrokes
+     */
+    public int getCorrectKeystrokes() {
+        return correctKeystrokes;
+    }
+
+    /**
+     * Returns the number of wrong keystrokes.
+     *
+     * @return the number of wrong keystrokes
+     */
+    public int getWrongKeystrokes() {
+        return wrongKeystrokes;
+    }
+
+    /**
+     * Returns the number of correct words.
+     *
+     * @return the number of correct words
+     */
+    public int getCorrectWords() {
+        return correctWords;
+    }
+
+    /**
+     * Returns the number of wrong words.
+     *
+     * @return the number of wrong words
+     */
+    public int getWrongWords() {
+        return wrongWords;
+    }
+}
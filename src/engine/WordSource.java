@@ -0,0 +1,26 @@
+package engine;
+
+/**
+ * The words a {@link TypingSession} is typed against, one word at a time.
+ */
+public interface WordSource {
+    /**
+     * Returns the word currently being typed.
+     *
+     * @return the word currently being typed
+     */
+    String getCurrentWord();
+
+    /**
+     * Sets the state of the word currently being typed to one of the
+     * constants of {@link structs.WordState}.
+     *
+     * @param state the new state of the word
+     */
+    void setCurrentWordState(byte state);
+
+    /**
+     * Moves on to the next word.
+     */
+    void nextWord();
+}
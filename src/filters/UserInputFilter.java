@@ -1,11 +1,15 @@
 package filters;
 
+import engine.KeystrokeLog;
+import engine.TypingSession;
 import models.ClockModel;
 import models.StatsModel;
 import models.TextBoxModel;
 import models.UserInputModel;
+import structs.Clock;
+import structs.InputLatency;
+import structs.PastePolicy;
 import structs.Timer;
-import structs.Word;
 
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
@@ -13,17 +17,27 @@ import javax.swing.text.DocumentFilter;
 
 /**
  * A filter that modifies the text field while the user types
- * during the typing test.
+ * during the typing test. The keystrokes are scored by a
+ * {@link TypingSession} typing against the text box model; this filter
+ * only feeds it and keeps the text field and stats model in step. The
+ * session records the errors and speed of every key straight into the key
+ * stats of the stats model.
  */
 public class UserInputFilter extends DocumentFilter {
+    private static final int KEYSTROKE_LOG_CAPACITY = 1 << 16;
+
     private UserInputModel userInputModel;
     private TextBoxModel textBoxModel;
     private ClockModel clockModel;
     private StatsModel statsModel;
     private Timer timer;
+    private PastePolicy pastePolicy;
+    private TypingSession session;
+    private Clock clock;
 
     /**
-     * Creates a new filter given the user input model.
+     * Creates a new filter given the user input model. The test is timed
+     * with the clock of the stats model.
      *
      * @param userInputModel the user input model
      * @param textBoxModel   the text box model
@@ -35,11 +49,24 @@ public class UserInputFilter extends DocumentFilter {
         this.textBoxModel = textBoxModel;
         this.clockModel = clockModel;
         this.statsModel = statsModel;
-        timer = new Timer(clockModel, userInputModel, textBoxModel, statsModel);
+        clock = statsModel.getClock();
+        timer = new Timer(clockModel, userInputModel, textBoxModel, statsModel, clock);
+        pastePolicy = PastePolicy.fromProperty();
+        session = new TypingSession(textBoxModel);
+        session.setKeystrokeLog(new KeystrokeLog(KEYSTROKE_LOG_CAPACITY));
+        session.setClock(clock);
+        session.setKeyStats(statsModel.getKeyStats());
     }
 
     /**
      * Updates the text field, user input model, and text box model as the user types.
+     * The changes made to the text box and stats models by a keystroke are
+     * batched so that their observers are notified once per keystroke.
+     * Text inserted several characters at a time is handled according to
+     * the paste policy: each character is typed in turn in a single batch
+     * and the text field is updated once at the end. Text typed while the
+     * test is not accepting input or has no words, such as after the test
+     * has ended or while words are loading, is dropped.
      *
      * @param fb     FilterBypass that can be used to mutate Document
      * @param offset Location in Document
@@ -54,47 +81,62 @@ public class UserInputFilter extends DocumentFilter {
         if (text == null || text.isEmpty()) {
             // if text field is set to null or is empty replace normally
             super.replace(fb, offset, length, text, attrs);
-        } else if (text.length() == 1) {
-            if (!timer.isActive()) {
-                timer.setActive(true);
-                timer.start();
-            }
-            Word currentWord = textBoxModel.getRow(textBoxModel.getRowIndex()).get(textBoxModel.getColumnIndex());
-            if (text.equals(" ")) {
-                if (userInputModel.getCurrentInput().length() > 0) {
-                    if (currentWord.getWord().equals(userInputModel.getCurrentInput())) {
-                        textBoxModel.markCurrentWordAsCorrect();
-                        statsModel.setCorrectWords(statsModel.getCorrectWords() + 1);
-                        statsModel.setCorrectKeystrokes(statsModel.getCorrectKeystrokes() + userInputModel.getCurrentInput().length() + 1);
-                    } else {
-                        textBoxModel.markCurrentWordAsWrong();
-                        statsModel.setWrongWords(statsModel.getWrongWords() + 1);
-                        statsModel.setWrongKeystrokes(statsModel.getWrongKeystrokes() + userInputModel.getCurrentInput().length() / 2 + 1);
-                    }
-                    if (textBoxModel.goToNextWord()) {
-                        textBoxModel.markCurrentWordAsCurrentlyCorrect();
-                        if (textBoxModel.needsToMoveRowsUp()) {
-                            textBoxModel.moveRowsUp();
-                        }
-                    } else {
-                        // typing test ended, shouldn't happen with RANDOM unless cheating 
-                    }
-                    remove(fb, 0, userInputModel.getCurrentInput().length());
+        } else if (!userInputModel.isCurrentlyAcceptingInput() || !textBoxModel.hasWords()) {
+            // the test has ended or its words are not ready
+        } else if (text.length() == 1 || pastePolicy != PastePolicy.REJECT) {
+            textBoxModel.beginUpdate();
+            statsModel.beginUpdate();
+            try {
+                if (!timer.isActive()) {
+                    statsModel.start(clock.nanoTime());
+                    session.reset();
+                    InputLatency.reset();
+                    timer.setActive(true);
+                    timer.start();
                 }
-            } else {
-                userInputModel.setCurrentInput(userInputModel.getCurrentInput() + text);
-                if (currentWord.getWord().startsWith(userInputModel.getCurrentInput())) {
-                    textBoxModel.markCurrentWordAsCurrentlyCorrect();
+                InputLatency.filtered();
+                if (text.length() == 1) {
+                    int inputLength = session.getInputLength();
+                    if (session.onKey(text.charAt(0))) {
+                        super.remove(fb, 0, inputLength);
+                        updateStats();
+                    } else if (session.getInputLength() > inputLength) {
+                        super.replace(fb, offset, length, text, attrs);
+                    }
                 } else {
-                    textBoxModel.markCurrentWordAsCurrentlyWrong();
+                    if (pastePolicy == PastePolicy.FLAG && !statsModel.isFlagged())
+                        statsModel.setFlagged(true);
+                    if (session.onText(text) > 0)
+                        updateStats();
+                    super.replace(fb, 0, fb.getDocument().getLength(), session.getInput(), attrs);
                 }
-                super.replace(fb, offset, length, text, attrs);
+            } finally {
+                statsModel.endUpdate();
+                textBoxModel.endUpdate();
             }
+            InputLatency.updated();
         }
     }
 
     /**
-     * Updates the text field and the user input model as the user removes text
+     * Returns the typing session fed by this filter.
+     *
+     * @return the typing session fed by this filter
+     */
+    public TypingSession getSession() {
+        return session;
+    }
+
+    /**
+     * Copies the counts of the typing session to the stats model.
+     */
+    private void updateStats() {
+        statsModel.setCounts(session.getCorrectWords(), session.getWrongWords(),
+                session.getCorrectKeystrokes(), session.getWrongKeystrokes());
+    }
+
+    /**
+     * Updates the text field and the typing session as the user removes text
      * from the text field.
      *
      * @param fb     FilterBypass that can be used to mutate Document
@@ -105,7 +147,7 @@ public class UserInputFilter extends DocumentFilter {
      *                              is the first bad position encountered.
      */
     public void remove(FilterBypass fb, int offset, int length) throws BadLocationException {
-        userInputModel.setCurrentInput(userInputModel.getCurrentInput().substring(0, offset));
+        session.truncate(offset);
         super.remove(fb, offset, length);
     }
 }
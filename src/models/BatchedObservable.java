@@ -0,0 +1,86 @@
+package models;
+
+import javax.swing.*;
+import java.util.Observable;
+
+/**
+ * An observable model whose changes can be grouped into a batch. Every
+ * change is identified by an event flag. Outside of a batch each change
+ * notifies the observers straight away with its flag; within a batch the
+ * flags are combined and the observers are notified once when the batch
+ * ends, with every flag that was raised during it. Batches may be nested,
+ * in which case only the outermost one notifies.
+ * <p>
+ * Observers are always notified on the event dispatch thread. Changes
+ * made on any other thread are handed to an {@link EventDispatcher} and
+ * combined with every other change made before it gets to run.
+ */
+public class BatchedObservable extends Observable {
+    private int depth;
+    private int pendingEvents;
+
+    /**
+     * Starts a batch of changes. Every call must be matched by a call to
+     * {@link BatchedObservable#endUpdate()}, preferably in a finally block.
+     */
+    public synchronized void beginUpdate() {
+        depth++;
+    }
+
+    /**
+     * Ends a batch of changes and, if it is the outermost batch and
+     * anything changed, notifies the observers with the combined flags of
+     * every change made during it.
+     */
+    public void endUpdate() {
+        synchronized (this) {
+            if (--depth > 0 || pendingEvents == 0)
+                return;
+        }
+        dispatch();
+    }
+
+    /**
+     * Notifies the observers of a change, or records it if a batch is in
+     * progress.
+     *
+     * @param event the flag of the change
+     */
+    protected void fireChange(int event) {
+        synchronized (this) {
+            pendingEvents |= event;
+            if (depth > 0)
+                return;
+        }
+        dispatch();
+    }
+
+    /**
+     * Notifies the observers of the recorded changes now if called on the
+     * event dispatch thread, otherwise queues the notification for it.
+     */
+    private void dispatch() {
+        if (SwingUtilities.isEventDispatchThread())
+            flush();
+        else
+            EventDispatcher.schedule(this);
+    }
+
+    /**
+     * Notifies the observers with the combined flags of every change
+     * recorded since the last notification, if any.
+     */
+    void flush() {
+        int events;
+        synchronized (this) {
+            if (depth > 0)
+                return;
+            events = pendingEvents;
+            pendingEvents = 0;
+        }
+        if (events == 0)
+            return;
+        setChanged();
+        notifyObservers(events);
+    }
+}
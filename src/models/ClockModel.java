@@ -1,16 +1,15 @@
 package models;
 
-import java.util.Observable;
-
 /**
- * Represents a clock that manages the time of the typing test.
+ * Represents a clock that manages the time of the typing test. The time
+ * may be read from any thread.
  */
-public class ClockModel extends Observable {
-    private int time; // time in seconds
+public class ClockModel extends BatchedObservable {
+    private volatile int time; // time in seconds
 
     public static final int
-            RESET_EVENT = 0,
-            UPDATE_TIME_EVENT = 1;
+            RESET_EVENT = 1,
+            UPDATE_TIME_EVENT = 1 << 1;
 
     /**
      * Creates a Clock Model with an initial time based on the default
@@ -36,8 +35,7 @@ public class ClockModel extends Observable {
      */
     public void setTime(int time) {
         this.time = time;
-        setChanged();
-        notifyObservers(UPDATE_TIME_EVENT);
+        fireChange(UPDATE_TIME_EVENT);
     }
 
     /**
@@ -46,7 +44,6 @@ public class ClockModel extends Observable {
      */
     public void reset() {
         time = SettingsModel.getInstance().getDuration();
-        setChanged();
-        notifyObservers(RESET_EVENT);
+        fireChange(RESET_EVENT);
     }
 }
@@ -0,0 +1,52 @@
+package models;
+
+import javax.swing.*;
+import java.util.ArrayList;
+
+/**
+ * Delivers the notifications of models changed off the event dispatch
+ * thread on the event dispatch thread. Models waiting to notify are
+ * queued and flushed together by a single task, so any number of changes
+ * made before the task runs cost one trip to the event dispatch thread
+ * and one notification per model.
+ */
+final class EventDispatcher {
+    private static final ArrayList<BatchedObservable> PENDING = new ArrayList<>();
+    private static boolean scheduled;
+
+    /**
+     * Prevent instantiation.
+     */
+    private EventDispatcher() {
+    }
+
+    /**
+     * Queues a model to notify its observers on the event dispatch thread.
+     *
+     * @param observable the model
+     */
+    static void schedule(BatchedObservable observable) {
+        synchronized (PENDING) {
+            if (!PENDING.contains(observable))
+                PENDING.add(observable);
+            if (scheduled)
+                return;
+            scheduled = true;
+        }
+        SwingUtilities.invokeLater(EventDispatcher::dispatch);
+    }
+
+    /**
+     * Notifies the observers of every queued model.
+     */
+    private static void dispatch() {
+        BatchedObservable[] observables;
+        synchronized (PENDING) {
+            observables = PENDING.toArray(new BatchedObservable[0]);
+            PENDING.clear();
+            scheduled = false;
+        }
+        for (BatchedObservable observable : observables)
+            observable.flush();
+    }
+}
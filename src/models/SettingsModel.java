@@ -1,5 +1,7 @@
 package models;
 
+import structs.WordDatabase;
+
 import java.util.Observable;
 
 /**
@@ -10,21 +12,22 @@ public class SettingsModel extends Observable {
     private static final SettingsModel SETTINGS_MODEL = new SettingsModel();
 
     public static final int LIGHT_MODE = 0, DARK_MODE = 1;
-    public static final int EASY_DIFFICULTY = 0, HARD_DIFFICULTY = 1;
 
-    private int difficulty, duration;
+    private String corpus;
+    private int duration;
     private boolean open;
 
     public static final int
             OPEN_EVENT = 0,
-            CLOSE_EVENT = 1;
+            CLOSE_EVENT = 1,
+            SETTINGS_CHANGE_EVENT = 2;
 
     /**
      * Prevent instantiation outside of this class. Initialize with default
      * settings.
      */
     private SettingsModel() {
-        difficulty = EASY_DIFFICULTY;
+        corpus = WordDatabase.getInstance().getDefaultCorpusName();
         duration = 60;
         open = false;
     }
@@ -39,22 +42,24 @@ public class SettingsModel extends Observable {
     }
 
     /**
-     * Returns the current difficulty
+     * Returns the name of the corpus words are drawn from.
      *
-     * @return the current difficulty
+     * @return the name of the corpus words are drawn from
      */
-    public int getDifficulty() {
-        return difficulty;
+    public String getCorpus() {
+        return corpus;
     }
 
     /**
-     * Sets the current difficulty
+     * Sets the name of the corpus words are drawn from.
      *
-     * @param difficulty the new difficulty
+     * @param corpus the name of the new corpus
      */
-    public void setDifficulty(int difficulty) {
-        if (this.difficulty != difficulty) {
-            this.difficulty = difficulty;
+    public void setCorpus(String corpus) {
+        if (!this.corpus.equals(corpus)) {
+            this.corpus = corpus;
+            setChanged();
+            notifyObservers(SETTINGS_CHANGE_EVENT);
         }
     }
 
@@ -75,6 +80,8 @@ public class SettingsModel extends Observable {
     public void setDuration(int duration) {
         if (this.duration != duration) {
             this.duration = duration;
+            setChanged();
+            notifyObservers(SETTINGS_CHANGE_EVENT);
         }
     }
 
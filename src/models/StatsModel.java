@@ -1,22 +1,76 @@
 package models;
 
-import java.util.Observable;
+import engine.KeyStats;
+import structs.Clock;
+import structs.SystemClock;
+import structs.WpmSeries;
 
 /**
- * Contains statistics about the user during their typing test.
+ * Contains statistics about the user during their typing test. Changes
+ * made within a batch are shown once at the end of the batch. Each
+ * statistic may be read from any thread.
+ * <p>
+ * The time shown while the test runs is counted in whole seconds by the
+ * timer, but the speed is computed from the time elapsed on the monotonic
+ * clock since the first keystroke, to the nanosecond. Every time is read
+ * from the {@link Clock} of the model.
+ * <p>
+ * The speed is also sampled at a fixed interval while the test runs into a
+ * {@link WpmSeries} preallocated for tests of up to
+ * {@link StatsModel#SERIES_CAPACITY} samples, so sampling allocates nothing.
+ * The errors and speed of every key are accumulated in {@link KeyStats} by
+ * whatever scores the keystrokes.
  */
-public class StatsModel extends Observable {
-    private int correctKeystrokes, wrongKeystrokes;
-    private int correctWords, wrongWords;
-    private int time;
+public class StatsModel extends BatchedObservable {
+    private volatile int correctKeystrokes, wrongKeystrokes;
+    private volatile int correctWords, wrongWords;
+    private volatile int time;
+    private volatile long startNanos, endNanos, pauseNanos;
+    private volatile boolean flagged;
+    private Clock clock;
+    private WpmSeries series;
+    private KeyStats keyStats;
+    private long lastSampleNanos;
+
+    public static final int
+            UPDATE_EVENT = 1,
+            SAMPLE_EVENT = 1 << 1;
+
+    /**
+     * The number of samples of the speed kept, enough for a ten minute test
+     * sampled every 250 milliseconds.
+     */
+    public static final int SERIES_CAPACITY = 4096;
 
     /**
      * Creates a new models.StatsModel with all stats set to zero.
      */
     public StatsModel() {
+        this(SystemClock.getInstance());
+    }
+
+    /**
+     * Creates a new models.StatsModel with all stats set to zero that
+     * measures elapsed time with a given clock.
+     *
+     * @param clock the clock to measure elapsed time with
+     */
+    public StatsModel(Clock clock) {
+        this.clock = clock;
+        series = new WpmSeries(SERIES_CAPACITY);
+        keyStats = new KeyStats();
         correctKeystrokes = wrongKeystrokes = correctWords = wrongWords = time = 0;
     }
 
+    /**
+     * Returns the clock elapsed time is measured with.
+     *
+     * @return the clock elapsed time is measured with
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
     /**
      * Returns the number of correct keystrokes.
      *
@@ -33,8 +87,7 @@ public class StatsModel extends Observable {
      */
     public void setCorrectKeystrokes(int correctKeystrokes) {
         this.correctKeystrokes = correctKeystrokes;
-        setChanged();
-        notifyObservers();
+        fireChange(UPDATE_EVENT);
     }
 
     /**
@@ -53,8 +106,7 @@ public class StatsModel extends Observable {
      */
     public void setWrongKeystrokes(int wrongKeystrokes) {
         this.wrongKeystrokes = wrongKeystrokes;
-        setChanged();
-        notifyObservers();
+        fireChange(UPDATE_EVENT);
     }
 
     /**
@@ -82,8 +134,7 @@ public class StatsModel extends Observable {
      */
     public void setCorrectWords(int correctWords) {
         this.correctWords = correctWords;
-        setChanged();
-        notifyObservers();
+        fireChange(UPDATE_EVENT);
     }
 
     /**
@@ -102,12 +153,115 @@ public class StatsModel extends Observable {
      */
     public void setWrongWords(int wrongWords) {
         this.wrongWords = wrongWords;
-        setChanged();
-        notifyObservers();
+        fireChange(UPDATE_EVENT);
+    }
+
+    /**
+     * Sets the number of correct and wrong words and keystrokes at once.
+     *
+     * @param correctWords      the number of correct words
+     * @param wrongWords        the number of wrong words
+     * @param correctKeystrokes the number of correct keystrokes
+     * @param wrongKeystrokes   the number of wrong keystrokes
+     */
+    public void setCounts(int correctWords, int wrongWords, int correctKeystrokes, int wrongKeystrokes) {
+        this.correctWords = correctWords;
+        this.wrongWords = wrongWords;
+        this.correctKeystrokes = correctKeystrokes;
+        this.wrongKeystrokes = wrongKeystrokes;
+        fireChange(UPDATE_EVENT);
+    }
+
+    /**
+     * Starts measuring the elapsed time of the typing test.
+     *
+     * @param startNanos the {@link Clock#nanoTime()} of the first keystroke
+     */
+    public void start(long startNanos) {
+        this.startNanos = startNanos;
+        endNanos = pauseNanos = 0;
+    }
+
+    /**
+     * Stops measuring the elapsed time of the typing test.
+     *
+     * @param endNanos the {@link Clock#nanoTime()} the test ended at
+     */
+    public void finish(long endNanos) {
+        this.endNanos = endNanos;
+        fireChange(UPDATE_EVENT);
+    }
+
+    /**
+     * Stops counting elapsed time until {@link StatsModel#resume(long)} is
+     * called.
+     *
+     * @param pauseNanos the {@link Clock#nanoTime()} the test was paused at
+     */
+    public void pause(long pauseNanos) {
+        this.pauseNanos = pauseNanos;
+    }
+
+    /**
+     * Counts elapsed time again, leaving out the time spent paused.
+     *
+     * @param resumeNanos the {@link Clock#nanoTime()} the test was resumed at
+     */
+    public void resume(long resumeNanos) {
+        startNanos += resumeNanos - pauseNanos;
+        pauseNanos = 0;
+    }
+
+    /**
+     * Returns true if the typing test has started and not yet finished,
+     * false otherwise.
+     *
+     * @return true if the typing test is running, false otherwise
+     */
+    public boolean isRunning() {
+        return startNanos != 0 && endNanos == 0;
+    }
+
+    /**
+     * Returns the {@link Clock#nanoTime()} of the first keystroke, moved
+     * later by any time spent paused, or 0 if the typing test has not
+     * started.
+     *
+     * @return the time of the first keystroke in nanoseconds
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Returns the {@link Clock#nanoTime()} the typing test ended at, or 0
+     * if it has not ended.
+     *
+     * @return the time the typing test ended at in nanoseconds
+     */
+    public long getEndNanos() {
+        return endNanos;
     }
 
     /**
-     * Returns the time of the typing test.
+     * Returns the time elapsed since the first keystroke, up to the end of
+     * the typing test if it has ended and leaving out any time spent paused.
+     *
+     * @return the elapsed time in nanoseconds, or 0 if the typing test
+     * has not started
+     */
+    public long getElapsedNanos() {
+        long start = startNanos, end = endNanos, pause = pauseNanos;
+        if (start == 0)
+            return 0;
+        if (end != 0)
+            return end - start;
+        return (pause != 0 ? pause : clock.nanoTime()) - start;
+    }
+
+    /**
+     * Returns the time of the typing test in whole seconds as shown while
+     * it runs.
      *
      * @return the time of the typing test
      */
@@ -122,19 +276,75 @@ public class StatsModel extends Observable {
      */
     public void setTime(int time) {
         this.time = time;
-        setChanged();
-        notifyObservers();
+        fireChange(UPDATE_EVENT);
+    }
+
+    /**
+     * Returns true if the typing test contains text that was inserted
+     * several characters at a time, false otherwise.
+     *
+     * @return true if the typing test contains inserted text, false otherwise
+     */
+    public boolean isFlagged() {
+        return flagged;
     }
 
     /**
-     * Returns the wpm (words per minute).
+     * Sets whether the typing test contains text that was inserted
+     * several characters at a time.
+     *
+     * @param flagged true if the typing test contains inserted text,
+     *                false otherwise
+     */
+    public void setFlagged(boolean flagged) {
+        this.flagged = flagged;
+        fireChange(UPDATE_EVENT);
+    }
+
+    /**
+     * Returns the wpm (words per minute) over the elapsed time.
      *
      * @return the wpm (words per minute)
      */
     public int getWpm() {
-        if (time == 0)
+        long elapsed = getElapsedNanos();
+        if (elapsed <= 0)
             return 0;
-        return (int) Math.round((correctKeystrokes - wrongKeystrokes) / 5d / (time / 60d));
+        return (int) Math.round((correctKeystrokes - wrongKeystrokes) / 5d / (elapsed / 60e9));
+    }
+
+    /**
+     * Returns the speed of the user sampled over the typing test.
+     *
+     * @return the speed of the user sampled over the typing test
+     */
+    public WpmSeries getWpmSeries() {
+        return series;
+    }
+
+    /**
+     * Returns the errors and speed of every key over the typing test.
+     *
+     * @return the errors and speed of every key over the typing test
+     */
+    public KeyStats getKeyStats() {
+        return keyStats;
+    }
+
+    /**
+     * Records the raw and net wpm and the number of wrong keystrokes over
+     * the elapsed time as the next sample of the series. Nothing is
+     * recorded if no time has elapsed since the last sample.
+     */
+    public void sample() {
+        long elapsed = getElapsedNanos();
+        if (elapsed <= lastSampleNanos)
+            return;
+        lastSampleNanos = elapsed;
+        double minutes = elapsed / 60e9;
+        series.record((float) ((correctKeystrokes + wrongKeystrokes) / 5d / minutes),
+                (float) ((correctKeystrokes - wrongKeystrokes) / 5d / minutes), wrongKeystrokes);
+        fireChange(SAMPLE_EVENT);
     }
 
     /**
@@ -153,7 +363,10 @@ public class StatsModel extends Observable {
      */
     public void reset() {
         correctKeystrokes = wrongKeystrokes = correctWords = wrongWords = time = 0;
-        setChanged();
-        notifyObservers();
+        startNanos = endNanos = pauseNanos = lastSampleNanos = 0;
+        flagged = false;
+        series.clear();
+        keyStats.clear();
+        fireChange(UPDATE_EVENT);
     }
 }
@@ -1,98 +1,204 @@
 package models;
 
-import structs.Word;
-import structs.WordDatabase;
+import engine.WordSource;
+import structs.Corpus;
+import structs.WordMeasurer;
+import structs.WordRows;
+import structs.WordState;
 
-import javax.swing.*;
-import java.util.ArrayList;
-import java.util.Observable;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Manages words in a typing test.
+ * Manages words in a typing test. Only the current row and a few rows
+ * ahead of it are laid out; words are drawn and packed into further rows
+ * as the user advances, so a test never runs out of words. Rows the user
+ * has moved past are discarded, so memory and reset latency do not depend
+ * on how many words the test contains.
+ * <p>
+ * Every test records the seed its words were drawn with, and resetting
+ * with the same corpus and seed draws exactly the same words again. While
+ * a test is running, the first rows of the next test are prepared on a
+ * background thread so that a reset only has to swap them in. The prepared
+ * test is discarded whenever the settings change.
+ * <p>
+ * Events are bit flags. Changes made within a batch reach the observers
+ * as a single notification holding the flags of every change, so an
+ * observer should check each flag rather than compare the whole value.
+ * The words are changed on the event dispatch thread only, while the
+ * current row and column may be read from any thread.
  */
-public class TextBoxModel extends Observable {
-    private ArrayList<ArrayList<Word>> rows;
-    private ArrayList<Word> words;
-    private int rowIndex, columnIndex;
+public class TextBoxModel extends BatchedObservable implements WordSource {
+    private static final ExecutorService PREPARER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Test preparer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private static final int MAX_COUNT_RANDOM = 1000;
+    private volatile WordRows rows;
+    private CompletableFuture<WordRows> preparedRows;
+    private SplittableRandom seeds;
+    private volatile int rowIndex, columnIndex;
+    private int maxWidth;
+    private WordMeasurer measurer;
+    private String errorMessage;
+
+    private static final int ROWS_AHEAD = 3;
     public static final int
-            RESET_EVENT = 0,
-            WORD_UPDATE_EVENT = 1,
-            MOVE_ROWS_UPWARDS_EVENT = 2,
-            CLEAR_EVENT = 3;
+            RESET_EVENT = 1,
+            WORD_UPDATE_EVENT = 1 << 1,
+            MOVE_ROWS_UPWARDS_EVENT = 1 << 2,
+            CLEAR_EVENT = 1 << 3,
+            LOADING_EVENT = 1 << 4,
+            ERROR_EVENT = 1 << 5;
 
     /**
-     * Creates a models.TextBoxModel with default values based on models.SettingsModel.
+     * Creates an empty models.TextBoxModel. Words are added by
+     * {@link TextBoxModel#reset(Corpus)} once a corpus has been loaded.
      */
     public TextBoxModel() {
-        rows = new ArrayList<>();
-        words = new ArrayList<>(MAX_COUNT_RANDOM);
-        reset();
+        seeds = new SplittableRandom();
+        SettingsModel.getInstance().addObserver((o, arg) -> {
+            Integer event = (Integer) arg;
+            if (event == SettingsModel.SETTINGS_CHANGE_EVENT)
+                discardPreparedRows();
+        });
     }
 
     /**
-     * Resets the TextBox with new words.
+     * Resets the TextBox to draw new words from a given corpus with a new
+     * seed, swapping in the prepared test if it is ready and drawn from
+     * the same corpus. If the typingtest.seed system property is set, the
+     * first test uses it as its seed instead.
+     *
+     * @param corpus the corpus to draw words from
      */
-    public void reset() {
-        rowIndex = columnIndex = 0;
-        words.clear();
-        rows.clear();
-        if (SettingsModel.getInstance().getDifficulty() == SettingsModel.EASY_DIFFICULTY) {
-            for (int i = 0; i < MAX_COUNT_RANDOM; i++) {
-                int x = (int) (Math.random() * WordDatabase.getInstance().getEasyWordCount());
-                words.add(WordDatabase.getInstance().getEasyWord(x));
-            }
+    public void reset(Corpus corpus) {
+        WordRows prepared = takePreparedRows(corpus);
+        if (prepared != null) {
+            reset(prepared);
         } else {
-            for (int i = 0; i < MAX_COUNT_RANDOM; i++) {
-                int x = (int) (Math.random() * WordDatabase.getInstance().getHardWordCount());
-                words.add(WordDatabase.getInstance().getHardWord(x));
-            }
+            Long fixedSeed = measurer == null ? Long.getLong("typingtest.seed") : null;
+            reset(corpus, fixedSeed != null ? fixedSeed : seeds.nextLong());
         }
-        words.get(0).setBackground(Word.BACKGROUND_CURRENT);
-        setChanged();
-        notifyObservers(RESET_EVENT);
-    }
-
-    /**
-     * Forms rows of the current words based on the maximum width of a
-     * row to ensure that every row does not have words that will be
-     * out of bounds of the GUI.
-     *
-     * @param maxWidth        the maximum width of a row
-     * @param additionalWidth the additional width of a word
-     * @param referenceLabel  a reference label to get the preferred
-     *                        width of a word
-     */
-    public void formRows(int maxWidth, int additionalWidth, JLabel referenceLabel) {
-        int x = 0;
-        while (x < words.size()) {
-            ArrayList<Word> row = new ArrayList<>();
-            int currentWidth = 0;
-            boolean filled = false;
-            while (!filled && x < words.size()) {
-                Word word = words.get(x);
-                referenceLabel.setText(word.getWord());
-                int wordWidth = (int) referenceLabel.getPreferredSize().getWidth() + additionalWidth;
-                if (currentWidth + wordWidth <= maxWidth) {
-                    currentWidth += wordWidth;
-                    row.add(word);
-                    x++;
-                } else {
-                    filled = true;
-                }
-            }
-            rows.add(row);
+    }
+
+    /**
+     * Resets the TextBox to draw new words from a given corpus with a given
+     * seed. No words are drawn until
+     * {@link TextBoxModel#formRows(int, WordMeasurer)} gives the width of a
+     * row.
+     *
+     * @param corpus the corpus to draw words from
+     * @param seed   the seed to draw words with
+     */
+    public void reset(Corpus corpus, long seed) {
+        reset(new WordRows(corpus, seed));
+    }
+
+    /**
+     * Resets the TextBox to show the given rows.
+     *
+     * @param rows the rows of the new test
+     */
+    private void reset(WordRows rows) {
+        this.rows = rows;
+        rowIndex = columnIndex = 0;
+        fireChange(RESET_EVENT);
+    }
+
+    /**
+     * Sets how rows are measured and forms the first rows of words,
+     * ensuring that every row does not have words that will be out of
+     * bounds of the GUI. More rows are formed with the same measurements
+     * as the user advances. Starts preparing the next test.
+     *
+     * @param maxWidth the maximum width of a row
+     * @param measurer the measurer of the width of a word
+     */
+    public void formRows(int maxWidth, WordMeasurer measurer) {
+        this.maxWidth = maxWidth;
+        this.measurer = measurer;
+        if (!rows.canFormWith(maxWidth, measurer))
+            rows = new WordRows(rows.getCorpus(), rows.getSeed());
+        rows.formRows(maxWidth, measurer, rowIndex + ROWS_AHEAD + 1);
+        prepareRows();
+    }
+
+    /**
+     * Starts forming the first rows of the next test on a background
+     * thread unless they are already being prepared.
+     */
+    private void prepareRows() {
+        if (preparedRows != null)
+            return;
+        Corpus corpus = rows.getCorpus();
+        long seed = seeds.nextLong();
+        int maxWidth = this.maxWidth;
+        WordMeasurer measurer = this.measurer;
+        preparedRows = CompletableFuture.supplyAsync(() -> {
+            WordRows prepared = new WordRows(corpus, seed);
+            prepared.formRows(maxWidth, measurer, ROWS_AHEAD + 1);
+            return prepared;
+        }, PREPARER);
+    }
+
+    /**
+     * Returns the prepared test if it has finished preparing and can be
+     * used for a given corpus, null otherwise. The prepared test is taken
+     * either way so that a new one is prepared.
+     *
+     * @param corpus the corpus of the next test
+     * @return the prepared test, or null if it cannot be used
+     */
+    private WordRows takePreparedRows(Corpus corpus) {
+        CompletableFuture<WordRows> prepared = preparedRows;
+        preparedRows = null;
+        if (prepared == null || !prepared.isDone() || prepared.isCompletedExceptionally()) {
+            discard(prepared);
+            return null;
         }
+        WordRows rows = prepared.join();
+        return rows.getCorpus() == corpus && rows.canFormWith(maxWidth, measurer) ? rows : null;
+    }
+
+    /**
+     * Discards the prepared test.
+     */
+    public void discardPreparedRows() {
+        discard(preparedRows);
+        preparedRows = null;
     }
 
     /**
-     * Returns the number of rows this object has.
+     * Cancels a prepared test if it is still being prepared.
      *
-     * @return the number of rows this object has
+     * @param prepared the prepared test, or null
+     */
+    private static void discard(CompletableFuture<WordRows> prepared) {
+        if (prepared != null)
+            prepared.cancel(false);
+    }
+
+    /**
+     * Returns the seed the words of the current test are drawn with.
+     *
+     * @return the seed the words of the current test are drawn with
+     */
+    public long getSeed() {
+        return rows.getSeed();
+    }
+
+    /**
+     * Returns the number of rows this object has formed so far, including
+     * rows the user has moved past.
+     *
+     * @return the number of rows this object has formed so far
      */
     public int getRowCount() {
-        return rows.size();
+        return rows == null ? 0 : rows.getRowCount();
     }
 
     /**
@@ -102,7 +208,7 @@ public class TextBoxModel extends Observable {
      * @return the number of columns at a given row
      */
     public int getColumnCount(int rowIndex) {
-        return rows.get(rowIndex).size();
+        return rows.getRowEnd(rowIndex) - rows.getRowStart(rowIndex);
     }
 
     /**
@@ -142,78 +248,136 @@ public class TextBoxModel extends Observable {
     }
 
     /**
-     * Returns the words at a given row.
+     * Returns the position of the first word of a given row. Words are
+     * numbered from the start of the test.
+     *
+     * @param rowIndex the index of the row
+     * @return the position of the first word of a given row
+     */
+    public int getRowStart(int rowIndex) {
+        return rows.getRowStart(rowIndex);
+    }
+
+    /**
+     * Returns the position after the last word of a given row.
+     *
+     * @param rowIndex the index of the row
+     * @return the position after the last word of a given row
+     */
+    public int getRowEnd(int rowIndex) {
+        return rows.getRowEnd(rowIndex);
+    }
+
+    /**
+     * Returns the word at a given position.
+     *
+     * @param position the position of the word
+     * @return the word at a given position
+     */
+    public String getWord(int position) {
+        return rows.getWord(position);
+    }
+
+    /**
+     * Returns the state of the word at a given position, one of the
+     * constants of {@link WordState}.
      *
-     * @param rowIndex the index of the row to get
-     * @return the words at a given row
+     * @param position the position of the word
+     * @return the state of the word at a given position
      */
-    public ArrayList<Word> getRow(int rowIndex) {
-        return rows.get(rowIndex);
+    public byte getWordState(int position) {
+        return rows.getState(position);
     }
 
     /**
-     * Sets the background of the word at the current row and column
-     * of this object to a gray color.
+     * Returns the position of the word at the current row and column of
+     * this object.
+     *
+     * @return the position of the word at the current row and column
+     */
+    public int getCurrentPosition() {
+        return rows.getRowStart(rowIndex) + columnIndex;
+    }
+
+    /**
+     * Returns the word at the current row and column of this object.
+     *
+     * @return the word at the current row and column of this object
+     */
+    public String getCurrentWord() {
+        return rows.getWord(getCurrentPosition());
+    }
+
+    /**
+     * Marks the word at the current row and column of this object as
+     * currently typed without mistakes.
      */
     public void markCurrentWordAsCurrentlyCorrect() {
-        Word word = rows.get(rowIndex).get(columnIndex);
-        word.setForeground(Word.FOREGROUND_DEFAULT);
-        word.setBackground(Word.BACKGROUND_CURRENT);
-        setChanged();
-        notifyObservers(WORD_UPDATE_EVENT);
+        setCurrentWordState(WordState.CURRENT);
     }
 
     /**
-     * Sets the background of the word at the current row and column
-     * of this object to a red color.
+     * Marks the word at the current row and column of this object as
+     * currently typed with a mistake.
      */
     public void markCurrentWordAsCurrentlyWrong() {
-        Word word = rows.get(rowIndex).get(columnIndex);
-        word.setForeground(Word.FOREGROUND_DEFAULT);
-        word.setBackground(Word.BACKGROUND_WRONG);
-        setChanged();
-        notifyObservers(WORD_UPDATE_EVENT);
+        setCurrentWordState(WordState.CURRENT_WRONG);
     }
 
     /**
-     * Sets background to a white color and the foreground to a red
-     * color of the word at the current row and column of this object.
+     * Marks the word at the current row and column of this object as
+     * submitted with a mistake.
      */
     public void markCurrentWordAsWrong() {
-        Word word = rows.get(rowIndex).get(columnIndex);
-        word.setForeground(Word.FOREGROUND_WRONG);
-        word.setBackground(Word.BACKGROUND_DEFAULT);
-        setChanged();
-        notifyObservers(WORD_UPDATE_EVENT);
+        setCurrentWordState(WordState.WRONG);
     }
 
     /**
-     * Sets background to a white color and the foreground to a green
-     * color of the word at the current row and column of this object.
+     * Marks the word at the current row and column of this object as
+     * submitted correctly.
      */
     public void markCurrentWordAsCorrect() {
-        Word word = rows.get(rowIndex).get(columnIndex);
-        word.setForeground(Word.FOREGROUND_CORRECT);
-        word.setBackground(Word.BACKGROUND_DEFAULT);
-        setChanged();
-        notifyObservers(WORD_UPDATE_EVENT);
+        setCurrentWordState(WordState.CORRECT);
     }
 
     /**
-     * Increases the columnIndex by 1. If the columnIndex becomes equal
-     * to the current column size then it columnIndex will become zero
-     * and rowIndex will increase by 1. Returns true if it successfully
-     * went to the next word, false otherwise.
+     * Sets the state of the word at the current row and column of this
+     * object and notifies the observers if the state changed.
      *
-     * @return true if it successfully went to the next word, false otherwise
+     * @param state the new state of the word
+     */
+    public void setCurrentWordState(byte state) {
+        int position = getCurrentPosition();
+        if (rows.getState(position) == state)
+            return;
+        rows.setState(position, state);
+        fireChange(WORD_UPDATE_EVENT);
+    }
+
+    /**
+     * Increases the columnIndex by 1. If the columnIndex becomes equal
+     * to the current column size then it columnIndex will become zero,
+     * rowIndex will increase by 1, the rows before it are discarded and
+     * another row is formed ahead of it.
      */
-    public boolean goToNextWord() {
+    public void goToNextWord() {
         columnIndex++;
-        if (columnIndex == rows.get(rowIndex).size()) {
+        if (columnIndex == getColumnCount(rowIndex)) {
             rowIndex++;
             columnIndex = 0;
+            rows.discardRowsBefore(rowIndex);
+            rows.formRows(rowIndex + ROWS_AHEAD + 1);
         }
-        return rowIndex < rows.size() && columnIndex < rows.get(rowIndex).size();
+    }
+
+    /**
+     * Moves on to the next word, moving the rows upwards if it starts a
+     * new row.
+     */
+    public void nextWord() {
+        goToNextWord();
+        if (needsToMoveRowsUp())
+            moveRowsUp();
     }
 
     /**
@@ -232,18 +396,63 @@ public class TextBoxModel extends Observable {
      * on the text box.
      */
     public void moveRowsUp() {
-        setChanged();
-        notifyObservers(MOVE_ROWS_UPWARDS_EVENT);
+        fireChange(MOVE_ROWS_UPWARDS_EVENT);
+    }
+
+    /**
+     * Returns true if there are words to type, false if they have been
+     * cleared at the end of a test or while loading.
+     *
+     * @return true if there are words to type, false otherwise
+     */
+    public boolean hasWords() {
+        return rows != null;
+    }
+
+    /**
+     * Clears the current words while the corpus for the next words is
+     * being loaded.
+     */
+    public void setLoading() {
+        removeWords();
+        fireChange(LOADING_EVENT);
+    }
+
+    /**
+     * Clears the current words when no words can be shown, giving the
+     * reason in their place.
+     *
+     * @param errorMessage the reason no words can be shown
+     */
+    public void setError(String errorMessage) {
+        removeWords();
+        this.errorMessage = errorMessage;
+        fireChange(ERROR_EVENT);
+    }
+
+    /**
+     * Returns the reason no words can be shown, as last given to
+     * {@link TextBoxModel#setError(String)}.
+     *
+     * @return the reason no words can be shown
+     */
+    public String getErrorMessage() {
+        return errorMessage;
     }
 
     /**
      * Clears the current words.
      */
     public void clear() {
+        removeWords();
+        fireChange(CLEAR_EVENT);
+    }
+
+    /**
+     * Removes every word and moves back to the first word.
+     */
+    private void removeWords() {
         rowIndex = columnIndex = 0;
-        words.clear();
-        rows.clear();
-        setChanged();
-        notifyObservers(CLEAR_EVENT);
+        rows = null;
     }
 }
@@ -1,20 +1,20 @@
 package models;
 
-import java.util.Observable;
-
 /**
- * Represents the user's input in the input field.
+ * Represents the user's input in the input field. The typed characters
+ * themselves are kept by the {@link engine.TypingSession} the input field
+ * feeds. The input may be read from any thread.
  */
-public class UserInputModel extends Observable {
-    private String currentInput;
-    private boolean currentlyAcceptingInput;
+public class UserInputModel extends BatchedObservable {
+    private volatile boolean currentlyAcceptingInput;
+
+    public static final int UPDATE_EVENT = 1;
 
     /**
      * Creates a new models.UserInputModel with an empty input and is
      * currently accepting input.
      */
     public UserInputModel() {
-        currentInput = "";
         currentlyAcceptingInput = true;
     }
 
@@ -23,28 +23,8 @@ public class UserInputModel extends Observable {
      * currently accepting input.
      */
     public void reset() {
-        currentInput = "";
         currentlyAcceptingInput = true;
-        setChanged();
-        notifyObservers();
-    }
-
-    /**
-     * Returns the current input from the user.
-     *
-     * @return the current input from the user
-     */
-    public String getCurrentInput() {
-        return currentInput;
-    }
-
-    /**
-     * Sets the current input of the user.
-     *
-     * @param currentInput the current input of the user
-     */
-    public void setCurrentInput(String currentInput) {
-        this.currentInput = currentInput;
+        fireChange(UPDATE_EVENT);
     }
 
     /**
@@ -67,7 +47,6 @@ public class UserInputModel extends Observable {
      */
     public void setCurrentlyAcceptingInput(boolean currentlyAcceptingInput) {
         this.currentlyAcceptingInput = currentlyAcceptingInput;
-        setChanged();
-        notifyObservers();
+        fireChange(UPDATE_EVENT);
     }
 }
@@ -0,0 +1,123 @@
+package runner;
+
+import filters.UserInputFilter;
+import models.ClockModel;
+import models.SettingsModel;
+import models.StatsModel;
+import models.TextBoxModel;
+import models.UserInputModel;
+import structs.Corpus;
+import structs.VirtualClock;
+import structs.WordDatabase;
+import views.TextBoxView;
+import views.WordRowDisplay;
+
+import javax.swing.*;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many full-length typing tests in a row against a virtual clock,
+ * without showing a window. The models are wired together as in the
+ * typing test window and each test is started as the refresh button
+ * starts it. The words are typed correctly at a steady speed until the
+ * test ends, and every test is checked to have ended at its deadline
+ * with nothing left scheduled.
+ * <p>
+ * Usage: {@code java runner.SimulationRunner [tests] [wpm]}, running 1000
+ * tests at 60 WPM by default, with the duration and corpus of the
+ * settings.
+ */
+public class SimulationRunner {
+    private static final int ROW_WIDTH = 910, ROW_HEIGHT = 55;
+
+    private VirtualClock clock;
+    private ClockModel clockModel;
+    private TextBoxModel textBoxModel;
+    private UserInputModel userInputModel;
+    private StatsModel statsModel;
+    private AbstractDocument inputDocument;
+    private Corpus corpus;
+    private long keystrokeInterval;
+
+    /**
+     * Creates the models of a typing test driven by a virtual clock.
+     * Must be called on the event dispatch thread.
+     *
+     * @param corpus the corpus to draw words from
+     * @param wpm    the speed to type at in words per minute
+     */
+    private SimulationRunner(Corpus corpus, int wpm) {
+        this.corpus = corpus;
+        keystrokeInterval = TimeUnit.MINUTES.toNanos(1) / (wpm * 5L);
+        clock = new VirtualClock();
+        clockModel = new ClockModel();
+        textBoxModel = new TextBoxModel();
+        userInputModel = new UserInputModel();
+        statsModel = new StatsModel(clock);
+
+        WordRowDisplay topRowWordDisplay = new WordRowDisplay(), bottomRowWordDisplay = new WordRowDisplay();
+        topRowWordDisplay.setSize(ROW_WIDTH, ROW_HEIGHT);
+        bottomRowWordDisplay.setSize(ROW_WIDTH, ROW_HEIGHT);
+        new TextBoxView(textBoxModel, topRowWordDisplay, bottomRowWordDisplay);
+
+        inputDocument = new PlainDocument();
+        inputDocument.setDocumentFilter(new UserInputFilter(userInputModel, textBoxModel, clockModel, statsModel));
+    }
+
+    /**
+     * Runs a single typing test to the end and returns its speed. Must be
+     * called on the event dispatch thread.
+     *
+     * @return the speed of the test in words per minute
+     * @throws BadLocationException if the input could not be typed
+     */
+    private int runTest() throws BadLocationException {
+        clockModel.reset();
+        textBoxModel.reset(corpus);
+        userInputModel.reset();
+        statsModel.reset();
+        inputDocument.remove(0, inputDocument.getLength());
+        while (userInputModel.isCurrentlyAcceptingInput()) {
+            String word = textBoxModel.getCurrentWord();
+            int typed = inputDocument.getLength();
+            inputDocument.replace(typed, 0, typed < word.length() ? String.valueOf(word.charAt(typed)) : " ", null);
+            clock.advance(keystrokeInterval);
+        }
+        if (statsModel.getEndNanos() == 0 || clock.getPendingCount() != 0)
+            throw new IllegalStateException("Test did not end at its deadline");
+        return statsModel.getWpm();
+    }
+
+    /**
+     * Runs the typing tests on the event dispatch thread and prints their
+     * average speed and how long they took to run.
+     *
+     * @param args the number of tests and the typing speed in words per
+     *             minute, both optional
+     * @throws InterruptedException      if interrupted while waiting for the tests
+     * @throws InvocationTargetException if a test failed
+     */
+    public static void main(String[] args) throws InterruptedException, InvocationTargetException {
+        int tests = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int wpm = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        Corpus corpus = WordDatabase.getInstance().getCorpus(SettingsModel.getInstance().getCorpus());
+        SwingUtilities.invokeAndWait(() -> {
+            SimulationRunner runner = new SimulationRunner(corpus, wpm);
+            long start = System.nanoTime(), totalWpm = 0;
+            try {
+                for (int test = 0; test < tests; test++)
+                    totalWpm += runner.runTest();
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e);
+            }
+            System.out.printf("%d tests of %d seconds at %d WPM: average %.1f WPM in %d ms%n",
+                    tests, SettingsModel.getInstance().getDuration(), wpm, (double) totalWpm / tests,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+        System.exit(0);
+    }
+}
@@ -1,17 +1,26 @@
 package runner;
 
+import models.SettingsModel;
+import structs.StartupTimer;
+import structs.WordDatabase;
 import windows.TypingTestWindow;
 
+import javax.swing.*;
+
 /**
  * Runner for the Typing Test Application.
  */
 public class TypingTestRunner {
     /**
-     * Starts the application.
+     * Starts the application. The default corpus starts loading in the
+     * background before the window is built so that the window does not
+     * wait for it.
      *
      * @param args unused
      */
     public static void main(String[] args) {
-        new TypingTestWindow();
+        StartupTimer.mark("main");
+        WordDatabase.getInstance().loadCorpus(SettingsModel.getInstance().getCorpus());
+        SwingUtilities.invokeLater(TypingTestWindow::new);
     }
 }
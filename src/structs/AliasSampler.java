@@ -0,0 +1,112 @@
+package structs;
+
+/**
+ * Draws word indices from a discrete weighted distribution in constant
+ * time using Vose's alias method. The tables are built once in linear
+ * time; every draw afterwards costs one multiplication and one comparison
+ * regardless of how many words there are.
+ */
+public class AliasSampler {
+    private double[] probability;
+    private int[] alias;
+    private int size;
+
+    /**
+     * Creates a sampler that draws each of the given number of indices
+     * with equal probability. No tables are allocated.
+     *
+     * @param size the number of indices, at least 1
+     * @throws IllegalArgumentException if there are no indices
+     */
+    public AliasSampler(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("No indices to draw from");
+        this.size = size;
+    }
+
+    /**
+     * Creates a sampler that draws each index with a probability
+     * proportional to its weight.
+     *
+     * @param weights the finite, non-negative weight of each index, not all zero
+     * @throws IllegalArgumentException if a weight is negative or not
+     *                                  finite, or every weight is zero
+     */
+    public AliasSampler(float[] weights) {
+        size = weights.length;
+        double total = getTotalWeight(weights);
+        if (Double.isNaN(total))
+            throw new IllegalArgumentException("Weights must be finite and non-negative");
+        if (!(total > 0))
+            throw new IllegalArgumentException("Weights must not all be zero");
+        probability = new double[size];
+        alias = new int[size];
+
+        // worklists of indices whose scaled probability is below or at least 1
+        int[] small = new int[size], large = new int[size];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            probability[i] = (double) weights[i] * size / total;
+            if (probability[i] < 1)
+                small[smallCount++] = i;
+            else
+                large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount], more = large[--largeCount];
+            alias[less] = more;
+            probability[more] = probability[more] + probability[less] - 1;
+            if (probability[more] < 1)
+                small[smallCount++] = more;
+            else
+                large[largeCount++] = more;
+        }
+        // whatever is left over is 1 up to rounding error
+        while (largeCount > 0)
+            probability[large[--largeCount]] = 1;
+        while (smallCount > 0)
+            probability[small[--smallCount]] = 1;
+    }
+
+    /**
+     * Returns the sum of a list of weights, or NaN if any weight is negative
+     * or not finite.
+     *
+     * @param weights the weights
+     * @return the sum of the weights, or NaN if a weight is invalid
+     */
+    public static double getTotalWeight(float[] weights) {
+        double total = 0;
+        for (float weight : weights) {
+            if (!(weight >= 0) || Float.isInfinite(weight))
+                return Double.NaN;
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of indices this sampler draws from.
+     *
+     * @return the number of indices this sampler draws from
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Draws an index. A single uniform number picks both the column of the
+     * alias table, from its integer part once scaled, and the biased coin
+     * flip within that column, from its fractional part.
+     *
+     * @param uniform a uniformly distributed number in [0, 1)
+     * @return an index drawn from this sampler's distribution
+     */
+    public int sample(double uniform) {
+        double scaled = uniform * size;
+        int column = Math.min((int) scaled, size - 1);
+        if (probability == null || scaled - column < probability[column])
+            return column;
+        return alias[column];
+    }
+}
@@ -0,0 +1,37 @@
+package structs;
+
+/**
+ * A source of monotonic time that can run tasks after a delay. The typing
+ * test reads time and schedules its countdown only through a clock, so a
+ * {@link VirtualClock} can stand in for the {@link SystemClock} to run a
+ * full-length test in no time at all.
+ */
+public interface Clock {
+    /**
+     * Returns the current time in nanoseconds. Only the difference between
+     * two times is meaningful.
+     *
+     * @return the current time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Runs a task once a given delay has passed, on the thread the typing
+     * test runs on.
+     *
+     * @param task       the task
+     * @param delayNanos the delay in nanoseconds
+     * @return a handle that cancels the task if it has not run yet
+     */
+    Cancellable schedule(Runnable task, long delayNanos);
+
+    /**
+     * A handle to a scheduled task.
+     */
+    interface Cancellable {
+        /**
+         * Prevents the task from running if it has not run yet.
+         */
+        void cancel();
+    }
+}
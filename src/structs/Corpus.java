@@ -0,0 +1,46 @@
+package structs;
+
+/**
+ * A list of words that can be drawn from during a typing test. Words
+ * are identified by their index within the corpus.
+ */
+public interface Corpus {
+    /**
+     * Returns the number of words in this corpus.
+     *
+     * @return the number of words in this corpus
+     */
+    int size();
+
+    /**
+     * Returns the word at a given index as a String.
+     *
+     * @param index the index of the word
+     * @return the word at a given index as a String
+     */
+    String getWord(int index);
+
+    /**
+     * Returns the sampler used to draw words from this corpus. The sampler
+     * is built the first time it is requested and reused afterwards.
+     *
+     * @return the sampler used to draw words from this corpus
+     */
+    AliasSampler getSampler();
+
+    /**
+     * Returns an estimate of the number of bytes this corpus occupies on
+     * the heap.
+     *
+     * @return an estimate of the number of bytes this corpus occupies on
+     * the heap
+     */
+    long getHeapSize();
+
+    /**
+     * Releases any resources held outside the heap once the corpus is no
+     * longer resident. Corpora held entirely on the heap hold none.
+     */
+    default void close() {
+    }
+}
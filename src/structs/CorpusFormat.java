@@ -0,0 +1,298 @@
+package structs;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads and writes word corpora. A corpus is either a plain text list
+ * with one word per line, optionally followed by its frequency weight,
+ * or a precompiled binary corpus file.
+ * <p>
+ * A binary corpus file consists of a header of big-endian ints (magic
+ * number, version, flags, word count, character count, blob length in
+ * bytes), an offset table of word count + 1 ints giving the character
+ * offset of each word within the decoded blob, a table of word count
+ * float weights if {@link CorpusFormat#FLAG_WEIGHTED} is set, and the
+ * UTF-8 encoded blob of every word placed back to back. Version 1 files
+ * have no flags and no weights.
+ */
+public class CorpusFormat {
+    public static final int MAGIC = 0x54545743; // "TTWC"
+    public static final int VERSION = 2;
+    public static final int FLAG_WEIGHTED = 1;
+
+    /**
+     * Prevent instantiation.
+     */
+    private CorpusFormat() {
+    }
+
+    /**
+     * Reads a binary corpus of unknown length.
+     *
+     * @param in the stream to read from
+     * @return the corpus
+     * @throws IOException if the stream could not be read or is not a
+     *                     valid binary corpus
+     */
+    public static WordCorpus readBinary(InputStream in) throws IOException {
+        return readBinary(in, -1);
+    }
+
+    /**
+     * Reads a binary corpus. After the header is read the rest of the
+     * corpus is read in a single bulk read. The sizes given by the header
+     * are checked against each other and against the length of the corpus,
+     * if known, before anything is allocated, and a corpus that does not
+     * decode is reported as an IOException like any other malformed corpus.
+     *
+     * @param in     the stream to read from
+     * @param length the length of the corpus in bytes, or a negative number
+     *               if it is unknown
+     * @return the corpus
+     * @throws IOException if the stream could not be read or is not a
+     *                     valid binary corpus
+     */
+    public static WordCorpus readBinary(InputStream in, long length) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a binary corpus");
+        int version = data.readInt();
+        if (version != 1 && version != VERSION)
+            throw new IOException("Unsupported binary corpus version " + version);
+        int flags = version == 1 ? 0 : data.readInt();
+        int wordCount = data.readInt();
+        int charCount = data.readInt();
+        int blobLength = data.readInt();
+        // a UTF-8 blob never decodes to more chars than it has bytes
+        if (wordCount < 0 || charCount < 0 || blobLength < 0 || charCount > blobLength)
+            throw new IOException("Corrupt binary corpus header");
+        if (wordCount == 0)
+            throw new IOException("Empty binary corpus");
+        boolean weighted = (flags & FLAG_WEIGHTED) != 0;
+        long headerLength = (version == 1 ? 5 : 6) * 4L;
+        long bodyLength = (wordCount + 1L) * 4 + (weighted ? wordCount * 4L : 0) + blobLength;
+        if (bodyLength > Integer.MAX_VALUE - 8 || (length >= 0 && headerLength + bodyLength > length))
+            throw new IOException("Corrupt binary corpus header");
+        byte[] body = readFully(data, (int) bodyLength);
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            int[] offsets = new int[wordCount + 1];
+            buffer.asIntBuffer().get(offsets);
+            buffer.position(offsets.length * 4);
+            for (int i = 0; i < wordCount; i++) {
+                if (offsets[i] < 0 || offsets[i] > offsets[i + 1])
+                    throw new IOException("Corrupt binary corpus offsets");
+            }
+            if (offsets[0] != 0 || offsets[wordCount] != charCount)
+                throw new IOException("Corrupt binary corpus offsets");
+            float[] weights = null;
+            if (weighted) {
+                weights = new float[wordCount];
+                buffer.asFloatBuffer().get(weights);
+                buffer.position(buffer.position() + wordCount * 4);
+                checkWeights(weights);
+            }
+
+            char[] arena = new char[charCount];
+            CharBuffer out = CharBuffer.wrap(arena);
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+            CoderResult result = decoder.decode(buffer, out, true);
+            if (result.isError())
+                result.throwException();
+            if (!result.isUnderflow() || buffer.hasRemaining() || out.hasRemaining())
+                throw new IOException("Corrupt binary corpus blob");
+            return new WordCorpus(arena, offsets, weights, wordCount);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt binary corpus", e);
+        }
+    }
+
+    /**
+     * Reads a given number of bytes from a stream. The buffer grows as
+     * bytes arrive rather than being allocated at the given size up front,
+     * so a corpus that claims to be larger than it is fails at the end of
+     * the stream instead of allocating memory for bytes that never come.
+     *
+     * @param in     the stream to read from
+     * @param length the number of bytes to read
+     * @return the bytes read
+     * @throws IOException if the stream could not be read or ended early
+     */
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[Math.min(length, 1 << 20)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length)
+                bytes = Arrays.copyOf(bytes, (int) Math.min((long) bytes.length * 2, length));
+            int n = in.read(bytes, read, bytes.length - read);
+            if (n == -1)
+                throw new EOFException("Binary corpus ends early");
+            read += n;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes a corpus in the binary corpus format.
+     *
+     * @param corpus the corpus to write
+     * @param out    the stream to write to
+     * @throws IOException if the stream could not be written to
+     */
+    public static void writeBinary(WordCorpus corpus, OutputStream out) throws IOException {
+        StringBuilder text = new StringBuilder();
+        int[] offsets = new int[corpus.size() + 1];
+        for (int i = 0; i < corpus.size(); i++) {
+            offsets[i] = text.length();
+            for (int j = 0; j < corpus.getLength(i); j++)
+                text.append(corpus.charAt(i, j));
+        }
+        offsets[corpus.size()] = text.length();
+        byte[] blob = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(corpus.isWeighted() ? FLAG_WEIGHTED : 0);
+        data.writeInt(corpus.size());
+        data.writeInt(text.length());
+        data.writeInt(blob.length);
+        for (int offset : offsets)
+            data.writeInt(offset);
+        if (corpus.isWeighted()) {
+            for (int i = 0; i < corpus.size(); i++)
+                data.writeFloat(corpus.getWeight(i));
+        }
+        data.write(blob);
+        data.flush();
+    }
+
+    /**
+     * Reads a plain text list of UTF-8 words with one word per line. A word
+     * may be followed by whitespace and its frequency weight; words without
+     * a weight have a weight of 1. Blank lines are ignored.
+     *
+     * @param in the stream to read from
+     * @return the corpus
+     * @throws IOException if the stream could not be read, a weight is
+     *                     not a finite non-negative number, every weight is
+     *                     zero or there are no words
+     */
+    public static WordCorpus readText(InputStream in) throws IOException {
+        String text = new String(readAll(in), StandardCharsets.UTF_8);
+        WordCorpus.Builder builder = new WordCorpus.Builder();
+        double total = 0;
+        int i = 0;
+        while (i < text.length()) {
+            i = skipWhitespace(text, i, true);
+            int start = i;
+            while (i < text.length() && !Character.isWhitespace(text.charAt(i)))
+                i++;
+            if (i == start)
+                continue;
+            int end = i;
+            float weight = 1;
+            i = skipWhitespace(text, i, false);
+            if (i < text.length() && text.charAt(i) != '\n') {
+                int weightStart = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i)))
+                    i++;
+                try {
+                    weight = Float.parseFloat(text.substring(weightStart, i));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid weight for " + text.substring(start, end), e);
+                }
+                if (!(weight >= 0) || Float.isInfinite(weight))
+                    throw new IOException("Invalid weight for " + text.substring(start, end));
+                while (i < text.length() && text.charAt(i) != '\n')
+                    i++;
+            }
+            builder.add(text, start, end, weight);
+            total += weight;
+        }
+        WordCorpus corpus = builder.build();
+        if (corpus.size() == 0)
+            throw new IOException("Empty word list");
+        if (total == 0)
+            throw new IOException("Weights must not all be zero");
+        return corpus;
+    }
+
+    /**
+     * Checks that a list of weights can be drawn from.
+     *
+     * @param weights the weights
+     * @throws IOException if a weight is negative or not finite, or every
+     *                     weight is zero
+     */
+    private static void checkWeights(float[] weights) throws IOException {
+        double total = AliasSampler.getTotalWeight(weights);
+        if (Double.isNaN(total))
+            throw new IOException("Weights must be finite and non-negative");
+        if (total == 0)
+            throw new IOException("Weights must not all be zero");
+    }
+
+    /**
+     * Returns the index of the first character at or after a given index
+     * that is not whitespace, optionally stopping at a line break.
+     *
+     * @param text          the text to scan
+     * @param i             the index to start from
+     * @param skipLineBreak true if line breaks count as whitespace
+     * @return the index of the first character that is not skipped
+     */
+    private static int skipWhitespace(String text, int i, boolean skipLineBreak) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))
+                && (skipLineBreak || text.charAt(i) != '\n'))
+            i++;
+        return i;
+    }
+
+    /**
+     * Reads every remaining byte of a stream.
+     *
+     * @param in the stream to read from
+     * @return every remaining byte of the stream
+     * @throws IOException if the stream could not be read
+     */
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] bytes = new byte[Math.max(in.available(), 8192)];
+        int length = 0, read;
+        while ((read = in.read(bytes, length, bytes.length - length)) != -1) {
+            length += read;
+            if (length == bytes.length)
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Converts a plain text word list into a binary corpus file.
+     *
+     * @param args the text file to read followed by the binary corpus
+     *             file to write
+     * @throws IOException if either file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java structs.CorpusFormat <words.txt> <words.corpus>");
+            System.exit(1);
+        }
+        WordCorpus corpus;
+        try (InputStream in = new FileInputStream(args[0])) {
+            corpus = readText(in);
+        }
+        try (OutputStream out = new FileOutputStream(args[1])) {
+            writeBinary(corpus, out);
+        }
+        System.out.println("Wrote " + corpus.size() + " words to " + args[1]);
+    }
+}
@@ -0,0 +1,96 @@
+package structs;
+
+import javax.swing.*;
+
+/**
+ * Measures how long a keystroke takes to reach the screen. Each keystroke
+ * is stamped when its key event is handled, when the input filter scores
+ * it and when the event queue next runs after the filter has updated the
+ * models, and the time between the stages is recorded in a
+ * {@link LatencyHistogram}. Every repaint requested by the keystroke,
+ * whether of the text field or of the words, is queued before that turn,
+ * so it has been painted by then, while unrelated repaints are not
+ * attributed to it. A keystroke that is not filtered is dropped when the
+ * next one arrives.
+ * <p>
+ * Every stamp is expected on the event dispatch thread.
+ */
+public class InputLatency {
+    /**
+     * The time from the key event to the input filter.
+     */
+    public static final LatencyHistogram KEY_TO_FILTER = new LatencyHistogram();
+    /**
+     * The time from the input filter to the repaints it requested having
+     * run.
+     */
+    public static final LatencyHistogram FILTER_TO_SHOWN = new LatencyHistogram();
+    /**
+     * The time from the key event to the repaints requested by the input
+     * filter having run.
+     */
+    public static final LatencyHistogram KEY_TO_SHOWN = new LatencyHistogram();
+
+    private static long keyTime, filterTime;
+
+    /**
+     * Prevent instantiation.
+     */
+    private InputLatency() {
+    }
+
+    /**
+     * Stamps the key event of a new keystroke, dropping the previous one if
+     * it has not been shown.
+     */
+    public static void keyTyped() {
+        keyTime = System.nanoTime();
+        filterTime = 0;
+    }
+
+    /**
+     * Stamps the keystroke reaching the input filter.
+     */
+    public static void filtered() {
+        if (keyTime == 0 || filterTime != 0)
+            return;
+        filterTime = System.nanoTime();
+        KEY_TO_FILTER.record(filterTime - keyTime);
+    }
+
+    /**
+     * Completes the filtered keystroke on the next turn of the event queue,
+     * once the repaints requested while updating the models have run.
+     */
+    public static void updated() {
+        if (filterTime == 0)
+            return;
+        long stamp = filterTime;
+        SwingUtilities.invokeLater(() -> shown(stamp));
+    }
+
+    /**
+     * Stamps the keystroke being shown, unless a newer keystroke has
+     * arrived since it was filtered.
+     *
+     * @param stamp the time the keystroke was filtered
+     */
+    private static void shown(long stamp) {
+        if (filterTime != stamp)
+            return;
+        long shownTime = System.nanoTime();
+        FILTER_TO_SHOWN.record(shownTime - filterTime);
+        KEY_TO_SHOWN.record(shownTime - keyTime);
+        keyTime = filterTime = 0;
+    }
+
+    /**
+     * Removes every recorded latency for a new typing test. A keystroke
+     * in progress is still measured.
+     */
+    public static void reset() {
+        KEY_TO_FILTER.reset();
+        FILTER_TO_SHOWN.reset();
+        KEY_TO_SHOWN.reset();
+    }
+}
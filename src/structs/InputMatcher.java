@@ -0,0 +1,129 @@
+package structs;
+
+import java.util.Arrays;
+
+/**
+ * Matches the characters a user types against the word they are typing
+ * one character at a time. The typed characters are kept in a reusable
+ * buffer along with the length of the longest prefix of the input that
+ * matches the word, so appending or removing characters takes constant
+ * time and allocates nothing once the buffer is large enough.
+ */
+public class InputMatcher {
+    private char[] buffer;
+    private int length;
+    private int matched;
+    private String target;
+
+    /**
+     * Creates an empty matcher without a word to match against.
+     */
+    public InputMatcher() {
+        buffer = new char[32];
+        target = "";
+    }
+
+    /**
+     * Returns the word the input is matched against.
+     *
+     * @return the word the input is matched against
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Sets the word the input is matched against, matching the current
+     * input against it from the start.
+     *
+     * @param target the word to match against
+     */
+    public void setTarget(String target) {
+        this.target = target;
+        int limit = Math.min(length, target.length());
+        matched = 0;
+        while (matched < limit && buffer[matched] == target.charAt(matched))
+            matched++;
+    }
+
+    /**
+     * Appends a typed character to the input.
+     *
+     * @param c the typed character
+     */
+    public void append(char c) {
+        if (length == buffer.length)
+            buffer = Arrays.copyOf(buffer, length * 2);
+        if (matched == length && length < target.length() && target.charAt(length) == c)
+            matched++;
+        buffer[length++] = c;
+    }
+
+    /**
+     * Removes every character of the input from a given index onwards.
+     *
+     * @param length the number of characters to keep
+     */
+    public void truncate(int length) {
+        if (length >= this.length)
+            return;
+        this.length = Math.max(length, 0);
+        matched = Math.min(matched, this.length);
+    }
+
+    /**
+     * Removes every character of the input.
+     */
+    public void clear() {
+        length = matched = 0;
+    }
+
+    /**
+     * Returns the number of characters of the input.
+     *
+     * @return the number of characters of the input
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of leading characters of the input that match
+     * the word, which is also the index of the first mismatch if there is
+     * one.
+     *
+     * @return the number of leading characters of the input that match
+     * the word
+     */
+    public int getMatchedLength() {
+        return matched;
+    }
+
+    /**
+     * Returns true if the input is a prefix of the word, false otherwise.
+     *
+     * @return true if the input is a prefix of the word, false otherwise
+     */
+    public boolean isPrefix() {
+        return matched == length;
+    }
+
+    /**
+     * Returns true if the input is exactly the word, false otherwise.
+     *
+     * @return true if the input is exactly the word, false otherwise
+     */
+    public boolean isMatch() {
+        return matched == length && length == target.length();
+    }
+
+    /**
+     * Returns the input as a String.
+     *
+     * @return the input as a String
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+}
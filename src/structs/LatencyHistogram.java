@@ -0,0 +1,129 @@
+package structs;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies in nanoseconds held in a fixed number of
+ * buckets. Values below 128 are counted exactly; larger values are
+ * counted in log-linear buckets, 64 per power of two, so every recorded
+ * value is known to within about 1.6% whatever its magnitude. Recording
+ * is constant time and allocates nothing, and histograms merge by adding
+ * their buckets.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKET_COUNT;
+
+    private long[] counts;
+    private long count;
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new long[BUCKET_COUNT];
+    }
+
+    /**
+     * Returns the index of the bucket counting a value.
+     *
+     * @param value the non-negative value
+     * @return the index of the bucket counting the value
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value counted by a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the largest value counted by the bucket
+     */
+    private static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = index - shift * HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Records a latency. Negative latencies are recorded as zero.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[indexOf(value)]++;
+        count++;
+        if (value > max)
+            max = value;
+    }
+
+    /**
+     * Adds every latency recorded by another histogram to this one.
+     *
+     * @param other the other histogram
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            counts[i] += other.counts[i];
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes every recorded latency.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = max = 0;
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the largest recorded latency exactly.
+     *
+     * @return the largest recorded latency in nanoseconds, or 0 if none
+     * were recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the latency at or below which a given percentage of the
+     * recorded latencies fall, rounded up to the end of its bucket.
+     *
+     * @param percentile the percentage between 0 and 100
+     * @return the latency at the percentile in nanoseconds, or 0 if none
+     * were recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(highestValueOf(i), max);
+        }
+        return max;
+    }
+}
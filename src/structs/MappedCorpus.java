@@ -0,0 +1,235 @@
+package structs;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A corpus served straight from a memory-mapped UTF-8 word list with one
+ * entry per line. The word of an entry is the first whitespace separated
+ * token of its line, so frequency lists of the form "word count" can be
+ * used as they are. Blank lines are ignored. Words are drawn with equal
+ * probability since a weighted alias table would need heap proportional
+ * to the number of entries.
+ * <p>
+ * Only a fixed number of checkpoints are kept on the heap, each holding
+ * the file offset of every stride-th entry. When the checkpoints fill up
+ * every other one is dropped and the stride doubles, so the heap cost is
+ * the same for any file size. Looking up an entry scans forward at most
+ * stride - 1 lines from its checkpoint.
+ * <p>
+ * The index is built by {@link MappedCorpus#open(File)} on the thread
+ * opening the corpus, which is the background corpus loader in the
+ * application, so an empty list is rejected before it is ever drawn
+ * from. Closing the corpus unmaps the file; a closed corpus maps it again
+ * the next time a word is looked up.
+ */
+public class MappedCorpus implements Corpus {
+    private static final int CHECKPOINT_COUNT = 1 << 16;
+
+    private File file;
+    private MappedByteBuffer buffer;
+    private int limit;
+    private int[] checkpoints;
+    private int strideShift;
+    private int size;
+    private AliasSampler sampler;
+
+    /**
+     * Creates a corpus over a word list without mapping or indexing it.
+     *
+     * @param file the word list
+     */
+    private MappedCorpus(File file) {
+        this.file = file;
+        checkpoints = new int[CHECKPOINT_COUNT];
+    }
+
+    /**
+     * Memory-maps a word list and indexes it.
+     *
+     * @param file the word list
+     * @return a corpus of the words in the file
+     * @throws IOException if the file could not be mapped or has no words
+     */
+    public static MappedCorpus open(File file) throws IOException {
+        MappedCorpus corpus = new MappedCorpus(file);
+        corpus.map();
+        corpus.buildIndex();
+        if (corpus.size == 0) {
+            corpus.close();
+            throw new IOException("Empty word list " + file);
+        }
+        return corpus;
+    }
+
+    /**
+     * Maps the word list into memory.
+     *
+     * @throws IOException if the file could not be mapped
+     */
+    private void map() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Word list is larger than 2 GB: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        limit = buffer.limit();
+    }
+
+    /**
+     * Records a checkpoint for every stride-th entry of the file.
+     */
+    private void buildIndex() {
+        int count = 0;
+        int position = skipWhitespace(0);
+        while (position < limit) {
+            if ((count & ((1 << strideShift) - 1)) == 0) {
+                int checkpoint = count >> strideShift;
+                if (checkpoint == CHECKPOINT_COUNT) {
+                    for (int i = 0; i < CHECKPOINT_COUNT / 2; i++)
+                        checkpoints[i] = checkpoints[i * 2];
+                    strideShift++;
+                    checkpoint = count >> strideShift;
+                }
+                checkpoints[checkpoint] = position;
+            }
+            count++;
+            position = skipWhitespace(endOfLine(position));
+        }
+        size = count;
+    }
+
+    /**
+     * Returns the offset of the first non-whitespace byte at or after a
+     * given offset.
+     *
+     * @param position the offset to start from
+     * @return the offset of the first non-whitespace byte
+     */
+    private int skipWhitespace(int position) {
+        while (position < limit && (buffer.get(position) & 0xFF) <= ' ')
+            position++;
+        return position;
+    }
+
+    /**
+     * Returns the offset of the line break ending the line at a given offset.
+     *
+     * @param position an offset within the line
+     * @return the offset of the line break or the end of the file
+     */
+    private int endOfLine(int position) {
+        while (position < limit && buffer.get(position) != '\n')
+            position++;
+        return position;
+    }
+
+    /**
+     * Returns the number of words in this corpus.
+     *
+     * @return the number of words in this corpus
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the word at a given index decoded from the mapped file,
+     * mapping the file again if the corpus has been closed.
+     *
+     * @param index the index of the word
+     * @return the word at a given index
+     */
+    public synchronized String getWord(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if (buffer == null) {
+            try {
+                map();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map word list " + file, e);
+            }
+        }
+        int position = checkpoints[index >> strideShift];
+        for (int i = index & ((1 << strideShift) - 1); i > 0; i--)
+            position = skipWhitespace(endOfLine(position));
+        int end = position;
+        while (end < limit && (buffer.get(end) & 0xFF) > ' ')
+            end++;
+        byte[] bytes = new byte[end - position];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(position + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a sampler that draws every word with equal probability.
+     *
+     * @return a sampler that draws every word with equal probability
+     */
+    public synchronized AliasSampler getSampler() {
+        if (sampler == null)
+            sampler = new AliasSampler(size);
+        return sampler;
+    }
+
+    /**
+     * Returns the number of bytes taken by the checkpoint table. The mapped
+     * file itself is not on the heap.
+     *
+     * @return the number of bytes taken by the checkpoint table
+     */
+    public long getHeapSize() {
+        return 4L * CHECKPOINT_COUNT;
+    }
+
+    /**
+     * Unmaps the word list. The mapping is released straight away where
+     * the running Java version allows it, and otherwise once the buffer is
+     * garbage collected.
+     */
+    public synchronized void close() {
+        if (buffer == null)
+            return;
+        unmap(buffer);
+        buffer = null;
+    }
+
+    /**
+     * Releases the memory mapping of a buffer, which must not be used
+     * afterwards. Java has no public way to do this, so the cleaner of the
+     * buffer is invoked through sun.misc.Unsafe on Java 9 and later and
+     * through the buffer itself on Java 8. If neither is available the
+     * mapping is left for the garbage collector.
+     *
+     * @param buffer the buffer to unmap
+     */
+    private static void unmap(ByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // not Java 9 or later
+        }
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null)
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // leave the mapping for the garbage collector
+        }
+    }
+}
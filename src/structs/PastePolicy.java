@@ -0,0 +1,41 @@
+package structs;
+
+import java.util.Locale;
+
+/**
+ * What to do with text inserted several characters at a time, such as
+ * from a paste or an input method.
+ */
+public enum PastePolicy {
+    /**
+     * Types the text like any other input.
+     */
+    ALLOW,
+    /**
+     * Types the text but marks the results of the typing test as
+     * containing inserted text.
+     */
+    FLAG,
+    /**
+     * Ignores the text.
+     */
+    REJECT;
+
+    /**
+     * Returns the policy given by the typingtest.pastePolicy system
+     * property, or {@link PastePolicy#FLAG} if it is not set or not valid.
+     *
+     * @return the policy given by the typingtest.pastePolicy system property
+     */
+    public static PastePolicy fromProperty() {
+        String policy = System.getProperty("typingtest.pastePolicy");
+        if (policy != null) {
+            try {
+                return valueOf(policy.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+        }
+        return FLAG;
+    }
+}
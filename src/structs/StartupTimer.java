@@ -0,0 +1,34 @@
+package structs;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records how long the application takes to reach each stage of startup.
+ * Timings are printed to standard error as each stage is reached when the
+ * typingtest.startupTiming system property is set to true.
+ */
+public class StartupTimer {
+    private static final boolean ENABLED = Boolean.getBoolean("typingtest.startupTiming");
+    private static final long START = System.nanoTime();
+    private static final StringBuilder REACHED = new StringBuilder("|");
+
+    /**
+     * Prevent instantiation.
+     */
+    private StartupTimer() {
+    }
+
+    /**
+     * Records that a stage of startup has been reached. Only the first
+     * time a stage is reached is recorded.
+     *
+     * @param stage the name of the stage
+     */
+    public static synchronized void mark(String stage) {
+        if (!ENABLED || REACHED.indexOf("|" + stage + "|") >= 0)
+            return;
+        REACHED.append(stage).append('|');
+        System.err.printf("[startup] %-16s %8.2f ms after main, %5d ms after JVM start%n", stage,
+                (System.nanoTime() - START) / 1e6, ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+}
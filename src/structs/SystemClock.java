@@ -0,0 +1,60 @@
+package structs;
+
+import javax.swing.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clock of the running application, reading {@link System#nanoTime()}.
+ * Tasks are scheduled on a single daemon thread shared by the whole
+ * application and run on the event dispatch thread.
+ */
+public class SystemClock implements Clock {
+    private static final SystemClock SYSTEM_CLOCK = new SystemClock();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Prevent instantiation outside of this class.
+     */
+    private SystemClock() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Typing test scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the structs.SystemClock for this Java application.
+     *
+     * @return the structs.SystemClock for this Java application
+     */
+    public static SystemClock getInstance() {
+        return SYSTEM_CLOCK;
+    }
+
+    /**
+     * Returns {@link System#nanoTime()}.
+     *
+     * @return the current time in nanoseconds
+     */
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Runs a task on the event dispatch thread once a given delay has passed.
+     *
+     * @param task       the task
+     * @param delayNanos the delay in nanoseconds
+     * @return a handle that cancels the task if it has not been handed to
+     * the event dispatch thread yet
+     */
+    public Cancellable schedule(Runnable task, long delayNanos) {
+        ScheduledFuture<?> future = scheduler.schedule(() -> SwingUtilities.invokeLater(task), delayNanos, TimeUnit.NANOSECONDS);
+        return () -> future.cancel(false);
+    }
+}
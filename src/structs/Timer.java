@@ -1,23 +1,44 @@
 package structs;
 
 import models.ClockModel;
+import models.SettingsModel;
 import models.StatsModel;
 import models.TextBoxModel;
 import models.UserInputModel;
 
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A timer that handles decreasing the time of the typing test.
+ * <p>
+ * The countdown runs against a deadline on the monotonic clock rather
+ * than by counting ticks, so it never drifts: every tick computes the
+ * time left from the deadline and schedules the next tick for when the
+ * time left next crosses a whole second. Time is read and ticks are
+ * scheduled only through a {@link Clock}: the {@link SystemClock} handles
+ * ticks on the event dispatch thread, where the rest of the typing test
+ * runs, and a {@link VirtualClock} lets a whole test run to the end as
+ * soon as the clock is advanced. Only one tick is ever pending, so ticks
+ * cannot pile up while the event dispatch thread is busy. The timer is
+ * paused while the settings are open.
+ * <p>
+ * Alongside the ticks, the timer has the stats model sample the speed
+ * of the user every {@link Timer#SAMPLE_INTERVAL} nanoseconds of elapsed
+ * time, and once more when the test ends.
  */
 public class Timer {
+    public static final long SAMPLE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
     private ClockModel clockModel;
     private UserInputModel userInputModel;
     private TextBoxModel textBoxModel;
     private StatsModel statsModel;
-    private java.util.Timer timer;
-    private TimerTask timerTask;
-    private boolean active;
+    private Clock clock;
+    private Clock.Cancellable nextTick, nextSample;
+    private long deadline, remainingWhenPaused;
+    private int generation;
+    private boolean active, paused;
 
     /**
      * Creates a new timer that will decrease the time of a typing test when it starts
@@ -29,17 +50,46 @@ public class Timer {
      * @param statsModel     the stats model
      */
     public Timer(ClockModel clockModel, UserInputModel userInputModel, TextBoxModel textBoxModel, StatsModel statsModel) {
+        this(clockModel, userInputModel, textBoxModel, statsModel, SystemClock.getInstance());
+    }
+
+    /**
+     * Creates a new timer that counts down with a given clock.
+     *
+     * @param clockModel     the clock model
+     * @param userInputModel the user input model
+     * @param textBoxModel   the text box model
+     * @param statsModel     the stats model
+     * @param clock          the clock to read time from and schedule ticks with
+     */
+    public Timer(ClockModel clockModel, UserInputModel userInputModel, TextBoxModel textBoxModel, StatsModel statsModel, Clock clock) {
+        this.clock = clock;
         this.clockModel = clockModel;
         this.userInputModel = userInputModel;
         this.textBoxModel = textBoxModel;
         this.statsModel = statsModel;
-        timer = new java.util.Timer();
         active = false;
         clockModel.addObserver((o, arg) -> {
-            Integer event = (Integer) arg;
-            if (event == ClockModel.RESET_EVENT)
+            int events = (Integer) arg;
+            if ((events & ClockModel.RESET_EVENT) != 0)
                 stop();
         });
+        SettingsModel.getInstance().addObserver((o, arg) -> {
+            Integer event = (Integer) arg;
+            if (event == SettingsModel.OPEN_EVENT)
+                pause();
+            else if (event == SettingsModel.CLOSE_EVENT)
+                resume();
+        });
+    }
+
+    /**
+     * Returns the clock the timer reads time from and schedules ticks with.
+     *
+     * @return the clock of the timer
+     */
+    public Clock getClock() {
+        return clock;
     }
 
     /**
@@ -60,31 +110,140 @@ public class Timer {
         this.active = active;
     }
 
+    /**
+     * Returns true if the timer is paused, false otherwise.
+     *
+     * @return true if the timer is paused, false otherwise
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
     /**
      * Starts the timer. Automatically calls {@link Timer#stop()} when the timer is done.
+     * The test ends exactly the duration of the clock after the start of the stats model.
+     * Must be called on the thread the clock runs ticks on.
      */
     public void start() {
-        int delay = 1000;
-        timerTask = new TimerTask() {
-            public void run() {
-                statsModel.setTime(statsModel.getTime() + 1);
-                clockModel.setTime(clockModel.getTime() - 1);
-                if (clockModel.getTime() <= 0) {
-                    stop();
-                }
-            }
-        };
-        timer.scheduleAtFixedRate(timerTask, delay, delay);
+        deadline = statsModel.getStartNanos() + clockModel.getTime() * SECOND;
+        paused = false;
+        generation++;
+        scheduleTick(clock.nanoTime());
+        scheduleSample();
+    }
+
+    /**
+     * Schedules the next tick for when the time left next reaches a whole
+     * second.
+     *
+     * @param now the current time in nanoseconds
+     */
+    private void scheduleTick(long now) {
+        long remaining = deadline - now;
+        long delay = remaining % SECOND == 0 ? SECOND : remaining % SECOND;
+        int tickGeneration = generation;
+        nextTick = clock.schedule(() -> tick(tickGeneration), Math.min(delay, Math.max(remaining, 0)));
+    }
+
+    /**
+     * Schedules the next sample for when the elapsed time next reaches a
+     * multiple of the sample interval.
+     */
+    private void scheduleSample() {
+        int sampleGeneration = generation;
+        nextSample = clock.schedule(() -> sample(sampleGeneration),
+                SAMPLE_INTERVAL - statsModel.getElapsedNanos() % SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Samples the speed of the user and schedules the next sample, unless
+     * the timer has since been stopped, paused or restarted.
+     *
+     * @param sampleGeneration the generation of the timer that scheduled this sample
+     */
+    private void sample(int sampleGeneration) {
+        if (sampleGeneration != generation || !active || paused)
+            return;
+        statsModel.sample();
+        scheduleSample();
+    }
+
+    /**
+     * Updates the models to the time left before the deadline and either
+     * schedules the next tick or ends the test, unless the timer has since
+     * been stopped, paused or restarted.
+     *
+     * @param tickGeneration the generation of the timer that scheduled this tick
+     */
+    private void tick(int tickGeneration) {
+        if (tickGeneration != generation || !active || paused)
+            return;
+        long now = clock.nanoTime();
+        // round up so that the clock shows 0 only once the deadline has passed
+        int secondsLeft = (int) Math.max(0, (deadline - now + SECOND - 1) / SECOND);
+        if (secondsLeft != clockModel.getTime()) {
+            statsModel.setTime(statsModel.getTime() + clockModel.getTime() - secondsLeft);
+            clockModel.setTime(secondsLeft);
+        }
+        if (secondsLeft <= 0) {
+            statsModel.finish(deadline);
+            statsModel.sample();
+            stop();
+        } else {
+            scheduleTick(now);
+        }
+    }
+
+    /**
+     * Pauses the countdown and the elapsed time of the stats model if the
+     * timer is counting down.
+     */
+    public void pause() {
+        if (!active || paused)
+            return;
+        long now = clock.nanoTime();
+        paused = true;
+        cancelScheduled();
+        remainingWhenPaused = deadline - now;
+        statsModel.pause(now);
+    }
+
+    /**
+     * Resumes the countdown and the elapsed time of the stats model with
+     * the time that was left when the timer was paused.
+     */
+    public void resume() {
+        if (!active || !paused)
+            return;
+        long now = clock.nanoTime();
+        paused = false;
+        deadline = now + remainingWhenPaused;
+        statsModel.resume(now);
+        generation++;
+        scheduleTick(now);
+        scheduleSample();
+    }
+
+    /**
+     * Cancels the pending tick and sample, if any.
+     */
+    private void cancelScheduled() {
+        if (nextTick != null)
+            nextTick.cancel();
+        if (nextSample != null)
+            nextSample.cancel();
+        nextTick = nextSample = null;
     }
 
     /**
      * Stops the timer and is automatically called within {@link Timer#start()}
-     * once the timer is done.
+     * once the timer is done. Must be called on the thread the clock runs ticks on.
      */
     public void stop() {
-        if (timerTask != null)
-            timerTask.cancel();
+        cancelScheduled();
+        generation++;
         active = false;
+        paused = false;
         textBoxModel.clear();
         if (userInputModel.isCurrentlyAcceptingInput())
             userInputModel.setCurrentlyAcceptingInput(false);
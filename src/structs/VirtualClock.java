@@ -0,0 +1,154 @@
+package structs;
+
+import javax.swing.*;
+import java.util.PriorityQueue;
+
+/**
+ * A clock whose time only moves when it is advanced by hand. Scheduled
+ * tasks run on the thread advancing the clock, in the order they fall
+ * due, with the time set to when each was due. A typing test driven by a
+ * virtual clock is therefore deterministic, and a test of any length can
+ * be run to the end as fast as its tasks execute.
+ * <p>
+ * The clock must be scheduled on and advanced from the event dispatch
+ * thread. Models notify their observers straight away only on that
+ * thread, so a test driven from any other thread would have the timer
+ * react to the models of an earlier test. Calls from any other thread
+ * throw an {@link IllegalStateException}.
+ */
+public class VirtualClock implements Clock {
+    private PriorityQueue<ScheduledTask> tasks;
+    private long now;
+    private long sequence;
+
+    /**
+     * Creates a virtual clock starting at a given time.
+     *
+     * @param now the starting time in nanoseconds
+     */
+    public VirtualClock(long now) {
+        this.now = now;
+        tasks = new PriorityQueue<>();
+    }
+
+    /**
+     * Creates a virtual clock starting at time 1, so that a time of 0 can
+     * still mean that something has not happened yet.
+     */
+    public VirtualClock() {
+        this(1);
+    }
+
+    /**
+     * Returns the current virtual time.
+     *
+     * @return the current virtual time in nanoseconds
+     */
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Schedules a task to run when the clock is advanced past a given delay.
+     * Must be called on the event dispatch thread.
+     *
+     * @param task       the task
+     * @param delayNanos the delay in nanoseconds
+     * @return a handle that cancels the task if it has not run yet
+     */
+    public Cancellable schedule(Runnable task, long delayNanos) {
+        checkThread();
+        ScheduledTask scheduled = new ScheduledTask(task, now + Math.max(delayNanos, 0), sequence++);
+        tasks.add(scheduled);
+        return () -> {
+            checkThread();
+            tasks.remove(scheduled);
+        };
+    }
+
+    /**
+     * Moves the time forwards by a given amount, running every task that
+     * falls due on the way, including tasks scheduled by those tasks.
+     * Must be called on the event dispatch thread.
+     *
+     * @param nanos the amount of time to move forwards in nanoseconds
+     */
+    public void advance(long nanos) {
+        checkThread();
+        long target = now + nanos;
+        while (!tasks.isEmpty() && tasks.peek().due <= target) {
+            ScheduledTask task = tasks.poll();
+            now = Math.max(now, task.due);
+            task.task.run();
+        }
+        now = target;
+    }
+
+    /**
+     * Runs every scheduled task, including tasks scheduled by those tasks,
+     * moving the time forwards to when each falls due. Must be called on
+     * the event dispatch thread.
+     */
+    public void runAll() {
+        checkThread();
+        while (!tasks.isEmpty()) {
+            ScheduledTask task = tasks.poll();
+            now = Math.max(now, task.due);
+            task.task.run();
+        }
+    }
+
+    /**
+     * Returns the number of tasks that have not run yet.
+     *
+     * @return the number of tasks that have not run yet
+     */
+    public int getPendingCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Throws an exception unless called on the event dispatch thread.
+     *
+     * @throws IllegalStateException if called on any other thread
+     */
+    private static void checkThread() {
+        if (!SwingUtilities.isEventDispatchThread())
+            throw new IllegalStateException("A virtual clock must be driven from the event dispatch thread");
+    }
+
+    /**
+     * A task waiting for the clock to reach the time it is due.
+     */
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+        private Runnable task;
+        private long due;
+        private long sequence;
+
+        /**
+         * Creates a task due at a given time.
+         *
+         * @param task     the task
+         * @param due      the time the task is due in nanoseconds
+         * @param sequence the order the task was scheduled in, breaking ties
+         */
+        private ScheduledTask(Runnable task, long due, long sequence) {
+            this.task = task;
+            this.due = due;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Orders tasks by when they are due, then by when they were scheduled.
+         *
+         * @param other the other task
+         * @return a negative number, zero or a positive number as this task
+         * runs before, with or after the other task
+         */
+        public int compareTo(ScheduledTask other) {
+            if (due != other.due)
+                return Long.compare(due, other.due);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package structs;
+
+import java.util.Arrays;
+
+/**
+ * A compact list of words stored in a single contiguous character arena.
+ * An offset table marks where each word begins, so a word is identified
+ * by its index rather than by an object. Words may optionally carry a
+ * frequency weight, in which case they are drawn proportionally to it.
+ */
+public class WordCorpus implements Corpus {
+    private char[] arena;
+    private int[] offsets;
+    private float[] weights;
+    private int size;
+    private AliasSampler sampler;
+
+    /**
+     * Creates a new corpus from an arena and an offset table. The word at
+     * index i spans from offsets[i] inclusive to offsets[i + 1] exclusive.
+     *
+     * @param arena   the characters of every word placed back to back
+     * @param offsets the start of each word followed by the end of the last word
+     * @param size    the number of words
+     */
+    public WordCorpus(char[] arena, int[] offsets, int size) {
+        this(arena, offsets, null, size);
+    }
+
+    /**
+     * Creates a new corpus from an arena, an offset table and the
+     * frequency weight of each word.
+     *
+     * @param arena   the characters of every word placed back to back
+     * @param offsets the start of each word followed by the end of the last word
+     * @param weights the frequency weight of each word, or null if every
+     *                word is equally likely
+     * @param size    the number of words
+     */
+    public WordCorpus(char[] arena, int[] offsets, float[] weights, int size) {
+        this.arena = arena;
+        this.offsets = offsets;
+        this.weights = weights;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of words in this corpus.
+     *
+     * @return the number of words in this corpus
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of characters of the word at a given index.
+     *
+     * @param index the index of the word
+     * @return the number of characters of the word at a given index
+     */
+    public int getLength(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Returns a character of the word at a given index.
+     *
+     * @param index    the index of the word
+     * @param position the position of the character within the word
+     * @return a character of the word at a given index
+     */
+    public char charAt(int index, int position) {
+        return arena[offsets[index] + position];
+    }
+
+    /**
+     * Returns the word at a given index as a String.
+     *
+     * @param index the index of the word
+     * @return the word at a given index as a String
+     */
+    public String getWord(int index) {
+        return new String(arena, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * Returns true if the words of this corpus carry frequency weights,
+     * false if every word is equally likely.
+     *
+     * @return true if the words of this corpus carry frequency weights,
+     * false otherwise
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    /**
+     * Returns the frequency weight of the word at a given index.
+     *
+     * @param index the index of the word
+     * @return the frequency weight of the word at a given index
+     */
+    public float getWeight(int index) {
+        return weights == null ? 1 : weights[index];
+    }
+
+    /**
+     * Returns the sampler used to draw words from this corpus, building
+     * its alias table from the weights the first time it is requested.
+     *
+     * @return the sampler used to draw words from this corpus
+     */
+    public synchronized AliasSampler getSampler() {
+        if (sampler == null)
+            sampler = weights == null ? new AliasSampler(size) : new AliasSampler(weights);
+        return sampler;
+    }
+
+    /**
+     * Returns an estimate of the number of bytes this corpus occupies on
+     * the heap, counting its arrays and, once built, its sampler.
+     *
+     * @return an estimate of the number of bytes this corpus occupies on
+     * the heap
+     */
+    public synchronized long getHeapSize() {
+        long bytes = 2L * arena.length + 4L * offsets.length;
+        if (weights != null)
+            bytes += 4L * weights.length;
+        if (sampler != null && weights != null)
+            bytes += 12L * size;
+        return bytes;
+    }
+
+    /**
+     * Builds a corpus by appending words one at a time.
+     */
+    public static class Builder {
+        private char[] arena;
+        private int[] offsets;
+        private float[] weights;
+        private boolean weighted;
+        private int size, length;
+
+        /**
+         * Creates an empty builder.
+         */
+        public Builder() {
+            arena = new char[1024];
+            offsets = new int[128];
+            weights = new float[128];
+        }
+
+        /**
+         * Appends a word with a frequency weight to the end of the corpus
+         * being built.
+         *
+         * @param word   the characters to read the word from
+         * @param from   the index of the first character of the word
+         * @param to     the index after the last character of the word
+         * @param weight the frequency weight of the word
+         * @return this builder
+         */
+        public Builder add(CharSequence word, int from, int to, float weight) {
+            int wordLength = to - from;
+            if (length + wordLength > arena.length)
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, length + wordLength));
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                weights = Arrays.copyOf(weights, offsets.length);
+            }
+            for (int i = from; i < to; i++)
+                arena[length++] = word.charAt(i);
+            weights[size] = weight;
+            weighted |= weight != 1;
+            offsets[size++] = length - wordLength;
+            offsets[size] = length;
+            return this;
+        }
+
+        /**
+         * Appends a word to the end of the corpus being built.
+         *
+         * @param word the characters to read the word from
+         * @param from the index of the first character of the word
+         * @param to   the index after the last character of the word
+         * @return this builder
+         */
+        public Builder add(CharSequence word, int from, int to) {
+            return add(word, from, to, 1);
+        }
+
+        /**
+         * Appends a word to the end of the corpus being built.
+         *
+         * @param word the word
+         * @return this builder
+         */
+        public Builder add(CharSequence word) {
+            return add(word, 0, word.length());
+        }
+
+        /**
+         * Returns a corpus of the words added so far with arrays trimmed
+         * to their exact size.
+         *
+         * @return a corpus of the words added so far
+         */
+        public WordCorpus build() {
+            return new WordCorpus(Arrays.copyOf(arena, length), Arrays.copyOf(offsets, size + 1),
+                    weighted ? Arrays.copyOf(weights, size) : null, size);
+        }
+    }
+}
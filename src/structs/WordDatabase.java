@@ -1,35 +1,99 @@
 package structs;
 
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A database containing all the supported words for the typing test.
+ * <p>
+ * Corpora are discovered by name without being loaded. The bundled corpora
+ * are listed in /resources/words/corpora.txt, every .corpus and .txt file in
+ * the directory given by the typingtest.corpora system property is added
+ * under its file name, and the file given by the typingtest.dictionary
+ * system property is added as "Custom". A corpus is loaded the first time
+ * it is requested and stays resident until the heap used by resident
+ * corpora exceeds the budget given in megabytes by the
+ * typingtest.corpusBudget system property, at which point the least
+ * recently used corpora are evicted and closed.
  */
 public class WordDatabase {
     private static final WordDatabase WORD_DATABASE = new WordDatabase();
 
-    private ArrayList<Word> easyWords, hardWords;
+    private static final String INDEX_RESOURCE = "/resources/words/corpora.txt";
+    private static final long MAPPED_THRESHOLD = 8L << 20;
+
+    private LinkedHashMap<String, String> sources;
+    private LinkedHashMap<String, Corpus> resident;
+    private long budget;
+    private ExecutorService loader;
 
     /**
-     * Prevent instantiation outside of this class. Loads in data for the database.
+     * Prevent instantiation outside of this class. Discovers the corpora
+     * available to the database without loading them.
      */
     private WordDatabase() {
+        sources = new LinkedHashMap<>();
+        resident = new LinkedHashMap<>(16, 0.75f, true);
+        budget = Long.getLong("typingtest.corpusBudget", 64) << 20;
+        loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Corpus loader");
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            Scanner sc = new Scanner(getClass().getResourceAsStream("/resources/words/easy.txt"));
-            easyWords = new ArrayList<>();
-            while (sc.hasNext()) {
-                easyWords.add(new Word(sc.next()));
-            }
-            sc = new Scanner(getClass().getResourceAsStream("/resources/words/hard.txt"));
-            hardWords = new ArrayList<>();
-            while (sc.hasNext()) {
-                hardWords.add(new Word(sc.next()));
-            }
-            sc.close();
+            discoverResources();
         } catch (Exception e) {
             e.printStackTrace();
         }
+        String directory = System.getProperty("typingtest.corpora");
+        if (directory != null)
+            discoverDirectory(new File(directory));
+        String dictionary = System.getProperty("typingtest.dictionary");
+        if (dictionary != null)
+            sources.put("Custom", new File(dictionary).getAbsolutePath());
+    }
+
+    /**
+     * Adds the corpora listed in the classpath index. Each line of the
+     * index holds the resource name of a corpus followed by its name.
+     *
+     * @throws IOException if the index could not be read
+     */
+    private void discoverResources() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(INDEX_RESOURCE)) {
+            if (in == null)
+                throw new IOException("Missing corpus index " + INDEX_RESOURCE);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] part = line.trim().split("\\s+", 2);
+                if (part.length == 2)
+                    sources.put(part[1], "/resources/words/" + part[0]);
+            }
+        }
+    }
+
+    /**
+     * Adds every .corpus and .txt file in a directory, named after the file
+     * without its extension.
+     *
+     * @param directory the directory to search
+     */
+    private void discoverDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+        Arrays.sort(files);
+        for (File file : files) {
+            String fileName = file.getName();
+            int dot = fileName.lastIndexOf('.');
+            if (file.isFile() && dot > 0 && (fileName.endsWith(".corpus") || fileName.endsWith(".txt")))
+                sources.put(fileName.substring(0, dot), file.getAbsolutePath());
+        }
     }
 
     /**
@@ -42,40 +106,142 @@ public class WordDatabase {
     }
 
     /**
-     * Returns the total number of easy words in the database.
+     * Returns the names of every available corpus in discovery order.
      *
-     * @return the total number of easy words in the database
+     * @return the names of every available corpus
      */
-    public int getEasyWordCount() {
-        return easyWords.size();
+    public synchronized List<String> getCorpusNames() {
+        return new ArrayList<>(sources.keySet());
     }
 
     /**
-     * Returns the total number of hard words in the database.
+     * Returns the name of the corpus used when none has been chosen.
      *
-     * @return the total number of hard words in the database
+     * @return the name of the corpus used when none has been chosen
      */
-    public int getHardWordCount() {
-        return hardWords.size();
+    public synchronized String getDefaultCorpusName() {
+        return sources.isEmpty() ? "" : sources.keySet().iterator().next();
     }
 
     /**
-     * Returns a word from the easy word database at a given index.
+     * Returns true if the corpus with the given name is loaded, false
+     * otherwise.
      *
-     * @param index the index
-     * @return a word from the easy word database a given index
+     * @param name the name of the corpus
+     * @return true if the corpus with the given name is loaded, false otherwise
      */
-    public Word getEasyWord(int index) {
-        return new Word(easyWords.get(index).getWord());
+    public synchronized boolean isResident(String name) {
+        return resident.containsKey(name);
+    }
+
+    /**
+     * Returns a future of the corpus with the given name. The future is
+     * already complete if the corpus is resident, otherwise the corpus is
+     * loaded on a background thread.
+     *
+     * @param name the name of the corpus
+     * @return a future of the corpus with the given name
+     */
+    public CompletableFuture<Corpus> loadCorpus(String name) {
+        synchronized (this) {
+            Corpus corpus = resident.get(name);
+            if (corpus != null)
+                return CompletableFuture.completedFuture(corpus);
+        }
+        return CompletableFuture.supplyAsync(() -> getCorpus(name), loader);
     }
 
     /**
-     * Returns a word from the hard word database at a given index.
+     * Returns the corpus with the given name, loading it on the calling
+     * thread if it is not resident. Falls back to the default corpus if the
+     * corpus does not exist or could not be loaded.
      *
-     * @param index the index
-     * @return a word from the hard word database at a given index
+     * @param name the name of the corpus
+     * @return the corpus with the given name
      */
-    public Word getHardWord(int index) {
-        return new Word(hardWords.get(index).getWord());
+    public Corpus getCorpus(String name) {
+        Corpus corpus;
+        synchronized (this) {
+            corpus = resident.get(name);
+            if (corpus != null)
+                return corpus;
+        }
+        try {
+            String source = sources.get(name);
+            if (source == null)
+                throw new IOException("Unknown corpus " + name);
+            corpus = load(source);
+        } catch (IOException e) {
+            e.printStackTrace();
+            String defaultName = getDefaultCorpusName();
+            if (name.equals(defaultName))
+                throw new IllegalStateException("Default corpus could not be loaded", e);
+            return getCorpus(defaultName);
+        }
+        synchronized (this) {
+            // another thread may have loaded the same corpus in the meantime
+            Corpus loaded = resident.get(name);
+            if (loaded != null)
+                return loaded;
+            resident.put(name, corpus);
+            evict();
+        }
+        StartupTimer.mark("corpus loaded");
+        return corpus;
+    }
+
+    /**
+     * Evicts the least recently used corpora until the resident corpora fit
+     * within the budget. The most recently used corpus is always kept.
+     */
+    private void evict() {
+        long total = 0;
+        for (Corpus corpus : resident.values())
+            total += corpus.getHeapSize();
+        Iterator<Corpus> iterator = resident.values().iterator();
+        while (total > budget && resident.size() > 1) {
+            Corpus corpus = iterator.next();
+            total -= corpus.getHeapSize();
+            iterator.remove();
+            corpus.close();
+        }
+    }
+
+    /**
+     * Loads a corpus from a classpath resource or a file. Resources are
+     * given without an extension and are read from their precompiled
+     * binary corpus, falling back to the plain text list. Plain text files
+     * larger than {@link WordDatabase#MAPPED_THRESHOLD} are memory-mapped
+     * instead of read onto the heap.
+     *
+     * @param source the resource name or the absolute path of the file
+     * @return the corpus
+     * @throws IOException if the corpus could not be read
+     */
+    private Corpus load(String source) throws IOException {
+        if (source.startsWith("/resources/")) {
+            try (InputStream in = getClass().getResourceAsStream(source + ".corpus")) {
+                if (in != null)
+                    return CorpusFormat.readBinary(in);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            try (InputStream in = getClass().getResourceAsStream(source + ".txt")) {
+                if (in == null)
+                    throw new IOException("Missing word list " + source);
+                return CorpusFormat.readText(in);
+            }
+        }
+        File file = new File(source);
+        if (file.getName().endsWith(".corpus")) {
+            try (InputStream in = new FileInputStream(file)) {
+                return CorpusFormat.readBinary(in, file.length());
+            }
+        }
+        if (file.length() > MAPPED_THRESHOLD)
+            return MappedCorpus.open(file);
+        try (InputStream in = new FileInputStream(file)) {
+            return CorpusFormat.readText(in);
+        }
     }
 }
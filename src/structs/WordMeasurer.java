@@ -0,0 +1,48 @@
+package structs;
+
+import java.awt.*;
+import java.util.HashMap;
+
+/**
+ * Measures the width words take up when displayed using the advances of
+ * a font's metrics. Widths are memoized per word, so a measurer kept for
+ * the lifetime of a display measures each distinct word only once across
+ * every typing test. A measurer may be shared between threads.
+ */
+public class WordMeasurer {
+    private static final int MAX_CACHED_WORDS = 1 << 16;
+
+    private FontMetrics metrics;
+    private int padding;
+    private HashMap<String, Integer> widths;
+
+    /**
+     * Creates a measurer for words displayed in a given font.
+     *
+     * @param metrics the metrics of the font words are displayed in
+     * @param padding the width added to every word for its border and
+     *                the gap between words
+     */
+    public WordMeasurer(FontMetrics metrics, int padding) {
+        this.metrics = metrics;
+        this.padding = padding;
+        widths = new HashMap<>();
+    }
+
+    /**
+     * Returns the width a word takes up including its padding.
+     *
+     * @param word the word
+     * @return the width a word takes up including its padding
+     */
+    public synchronized int getWidth(String word) {
+        Integer width = widths.get(word);
+        if (width == null) {
+            if (widths.size() == MAX_CACHED_WORDS)
+                widths.clear();
+            width = metrics.stringWidth(word) + padding;
+            widths.put(word, width);
+        }
+        return width;
+    }
+}
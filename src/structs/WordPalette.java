@@ -0,0 +1,64 @@
+package structs;
+
+import java.awt.*;
+
+/**
+ * Resolves the state of a word to the colors it is drawn with.
+ */
+public final class WordPalette {
+    private static final Color
+            FOREGROUND_CORRECT = Color.decode("#008000"),
+            FOREGROUND_WRONG = Color.red,
+            FOREGROUND_DEFAULT = Color.black,
+            BACKGROUND_CURRENT = Color.decode("#DDDDDD"),
+            BACKGROUND_WRONG = Color.red,
+            BACKGROUND_DEFAULT = Color.white;
+
+    private static final Color[] FOREGROUNDS = new Color[WordState.COUNT], BACKGROUNDS = new Color[WordState.COUNT];
+
+    static {
+        set(WordState.PENDING, FOREGROUND_DEFAULT, BACKGROUND_DEFAULT);
+        set(WordState.CURRENT, FOREGROUND_DEFAULT, BACKGROUND_CURRENT);
+        set(WordState.CURRENT_WRONG, FOREGROUND_DEFAULT, BACKGROUND_WRONG);
+        set(WordState.CORRECT, FOREGROUND_CORRECT, BACKGROUND_DEFAULT);
+        set(WordState.WRONG, FOREGROUND_WRONG, BACKGROUND_DEFAULT);
+    }
+
+    /**
+     * Prevent instantiation.
+     */
+    private WordPalette() {
+    }
+
+    /**
+     * Sets the colors of a state.
+     *
+     * @param state      the state
+     * @param foreground the foreground color of a word in the state
+     * @param background the background color of a word in the state
+     */
+    private static void set(byte state, Color foreground, Color background) {
+        FOREGROUNDS[state] = foreground;
+        BACKGROUNDS[state] = background;
+    }
+
+    /**
+     * Returns the foreground color of a word in a given state.
+     *
+     * @param state the state of the word
+     * @return the foreground color of a word in a given state
+     */
+    public static Color getForeground(byte state) {
+        return FOREGROUNDS[state];
+    }
+
+    /**
+     * Returns the background color of a word in a given state.
+     *
+     * @param state the state of the word
+     * @return the background color of a word in a given state
+     */
+    public static Color getBackground(byte state) {
+        return BACKGROUNDS[state];
+    }
+}
@@ -0,0 +1,225 @@
+package structs;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The words of a typing test laid out into rows. Words are drawn from a
+ * corpus with a seeded random number generator as rows are formed, so the
+ * same corpus and seed always produce the same words. Rows are identified
+ * by their index from the start of the test even after earlier rows have
+ * been discarded.
+ * <p>
+ * Words are likewise identified by their position from the start of the
+ * test. The words still on screen and the state of each are kept in two
+ * parallel arrays indexed by position, and each row is only the position
+ * it starts at, so no object is allocated per word beyond its String.
+ */
+public class WordRows {
+    private Corpus corpus;
+    private AliasSampler sampler;
+    private SplittableRandom random;
+    private long seed;
+    private String[] words;
+    private byte[] states;
+    private int firstPosition, endPosition;
+    private int[] rowStarts;
+    private int firstRowIndex, rowCount;
+    private String nextWord;
+    private int nextWordWidth;
+    private int maxWidth;
+    private WordMeasurer measurer;
+
+    /**
+     * Creates the rows of a typing test without forming any of them.
+     *
+     * @param corpus the corpus to draw words from
+     * @param seed   the seed to draw words with
+     */
+    public WordRows(Corpus corpus, long seed) {
+        this.corpus = corpus;
+        this.seed = seed;
+        sampler = corpus.getSampler();
+        random = new SplittableRandom(seed);
+        words = new String[64];
+        states = new byte[64];
+        rowStarts = new int[8];
+    }
+
+    /**
+     * Returns the corpus words are drawn from.
+     *
+     * @return the corpus words are drawn from
+     */
+    public Corpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * Returns the seed words are drawn with.
+     *
+     * @return the seed words are drawn with
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns true if no rows have been formed yet or the rows have been
+     * formed with the given measurements, false otherwise.
+     *
+     * @param maxWidth the maximum width of a row
+     * @param measurer the measurer of the width of a word
+     * @return true if the rows can be formed with the given measurements,
+     * false otherwise
+     */
+    public boolean canFormWith(int maxWidth, WordMeasurer measurer) {
+        return getRowCount() == 0 || (this.maxWidth == maxWidth && this.measurer == measurer);
+    }
+
+    /**
+     * Forms rows until there are at least the given number of rows,
+     * ensuring that every row does not have words wider than the maximum
+     * width of a row.
+     *
+     * @param maxWidth the maximum width of a row
+     * @param measurer the measurer of the width of a word
+     * @param rowCount the number of rows to form up to
+     */
+    public void formRows(int maxWidth, WordMeasurer measurer, int rowCount) {
+        this.maxWidth = maxWidth;
+        this.measurer = measurer;
+        formRows(rowCount);
+    }
+
+    /**
+     * Forms rows with the last given measurements until there are at least
+     * the given number of rows.
+     *
+     * @param rowCount the number of rows to form up to
+     */
+    public void formRows(int rowCount) {
+        while (getRowCount() < rowCount) {
+            formRow();
+        }
+    }
+
+    /**
+     * Draws words until the next one does not fit within the maximum
+     * width of a row and appends them as a new row. The word that did not
+     * fit starts the following row.
+     */
+    private void formRow() {
+        int rowStart = endPosition;
+        int currentWidth = 0;
+        while (true) {
+            if (nextWord == null) {
+                nextWord = corpus.getWord(sampler.sample(random.nextDouble()));
+                nextWordWidth = measurer.getWidth(nextWord);
+            }
+            if (endPosition > rowStart && currentWidth + nextWordWidth > maxWidth)
+                break;
+            addWord(nextWord, endPosition == 0 ? WordState.CURRENT : WordState.PENDING);
+            currentWidth += nextWordWidth;
+            nextWord = null;
+        }
+        if (rowCount - firstRowIndex + 2 > rowStarts.length)
+            rowStarts = Arrays.copyOf(rowStarts, rowStarts.length * 2);
+        rowStarts[++rowCount - firstRowIndex] = endPosition;
+    }
+
+    /**
+     * Appends a word after the last word.
+     *
+     * @param word  the word
+     * @param state the state of the word
+     */
+    private void addWord(String word, byte state) {
+        int index = endPosition - firstPosition;
+        if (index == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+            states = Arrays.copyOf(states, words.length);
+        }
+        words[index] = word;
+        states[index] = state;
+        endPosition++;
+    }
+
+    /**
+     * Returns the number of rows formed so far, including discarded rows.
+     *
+     * @return the number of rows formed so far
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the position of the first word of a given row.
+     *
+     * @param rowIndex the index of the row, which must not be discarded
+     * @return the position of the first word of a given row
+     */
+    public int getRowStart(int rowIndex) {
+        return rowStarts[rowIndex - firstRowIndex];
+    }
+
+    /**
+     * Returns the position after the last word of a given row.
+     *
+     * @param rowIndex the index of the row, which must not be discarded
+     * @return the position after the last word of a given row
+     */
+    public int getRowEnd(int rowIndex) {
+        return rowStarts[rowIndex - firstRowIndex + 1];
+    }
+
+    /**
+     * Returns the word at a given position.
+     *
+     * @param position the position of the word, which must not be discarded
+     * @return the word at a given position
+     */
+    public String getWord(int position) {
+        return words[position - firstPosition];
+    }
+
+    /**
+     * Returns the state of the word at a given position.
+     *
+     * @param position the position of the word, which must not be discarded
+     * @return the state of the word at a given position
+     */
+    public byte getState(int position) {
+        return states[position - firstPosition];
+    }
+
+    /**
+     * Sets the state of the word at a given position.
+     *
+     * @param position the position of the word, which must not be discarded
+     * @param state    the new state of the word
+     */
+    public void setState(int position, byte state) {
+        states[position - firstPosition] = state;
+    }
+
+    /**
+     * Discards every row before a given row along with its words.
+     *
+     * @param rowIndex the index of the first row to keep
+     */
+    public void discardRowsBefore(int rowIndex) {
+        if (rowIndex <= firstRowIndex)
+            return;
+        int keptPosition = getRowStart(rowIndex);
+        int discardedWords = keptPosition - firstPosition, keptWords = endPosition - keptPosition;
+        System.arraycopy(words, discardedWords, words, 0, keptWords);
+        System.arraycopy(states, discardedWords, states, 0, keptWords);
+        Arrays.fill(words, keptWords, keptWords + discardedWords, null);
+        int discardedRows = rowIndex - firstRowIndex;
+        System.arraycopy(rowStarts, discardedRows, rowStarts, 0, rowCount - rowIndex + 1);
+        firstPosition = keptPosition;
+        firstRowIndex = rowIndex;
+    }
+}
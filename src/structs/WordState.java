@@ -0,0 +1,26 @@
+package structs;
+
+/**
+ * The states a word in the typing test can be in. A state is a single byte
+ * so the states of every word on screen fit in one small array, and is
+ * only turned into colors by a {@link WordPalette} when the word is drawn.
+ */
+public final class WordState {
+    public static final byte
+            PENDING = 0,
+            CURRENT = 1,
+            CURRENT_WRONG = 2,
+            CORRECT = 3,
+            WRONG = 4;
+
+    /**
+     * The number of states.
+     */
+    public static final int COUNT = 5;
+
+    /**
+     * Prevent instantiation.
+     */
+    private WordState() {
+    }
+}
@@ -0,0 +1,114 @@
+package structs;
+
+/**
+ * The speed of the user sampled at a fixed interval over a typing test,
+ * kept in preallocated primitive arrays used as a ring buffer. Each sample
+ * holds the raw and net words per minute and the number of wrong
+ * keystrokes so far, so recording a sample allocates nothing. Once the
+ * series is full the oldest samples are overwritten.
+ * <p>
+ * Samples are read by their index among the last {@link WpmSeries#size()}
+ * samples, oldest first.
+ */
+public class WpmSeries {
+    private float[] rawWpm, netWpm;
+    private int[] errors;
+    private int mask;
+    private long count;
+
+    /**
+     * Creates an empty series holding at least a given number of samples.
+     *
+     * @param capacity the minimum number of samples held, rounded up to a
+     *                 power of two
+     */
+    public WpmSeries(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        rawWpm = new float[size];
+        netWpm = new float[size];
+        errors = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Records a sample, overwriting the oldest one if the series is full.
+     *
+     * @param rawWpm the words per minute counting every keystroke
+     * @param netWpm the words per minute counting correct keystrokes less
+     *               wrong ones
+     * @param errors the number of wrong keystrokes so far
+     */
+    public void record(float rawWpm, float netWpm, int errors) {
+        int slot = (int) count & mask;
+        this.rawWpm[slot] = rawWpm;
+        this.netWpm[slot] = netWpm;
+        this.errors[slot] = errors;
+        count++;
+    }
+
+    /**
+     * Removes every sample.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Returns the number of samples recorded since the series was last
+     * cleared, including overwritten ones.
+     *
+     * @return the number of samples recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of samples that can still be read.
+     *
+     * @return the number of samples that can still be read
+     */
+    public int size() {
+        return (int) Math.min(count, mask + 1);
+    }
+
+    /**
+     * Returns the slot of the sample at a given index.
+     *
+     * @param index the index of the sample, oldest first
+     * @return the slot of the sample
+     */
+    private int slot(int index) {
+        return (int) (count - size() + index) & mask;
+    }
+
+    /**
+     * Returns the raw words per minute of a sample.
+     *
+     * @param index the index of the sample, oldest first
+     * @return the words per minute counting every keystroke
+     */
+    public float getRawWpm(int index) {
+        return rawWpm[slot(index)];
+    }
+
+    /**
+     * Returns the net words per minute of a sample.
+     *
+     * @param index the index of the sample, oldest first
+     * @return the words per minute counting correct keystrokes less wrong ones
+     */
+    public float getNetWpm(int index) {
+        return netWpm[slot(index)];
+    }
+
+    /**
+     * Returns the number of wrong keystrokes up to a sample.
+     *
+     * @param index the index of the sample, oldest first
+     * @return the number of wrong keystrokes up to the sample
+     */
+    public int getErrors(int index) {
+        return errors[slot(index)];
+    }
+}
@@ -16,10 +16,10 @@ public class ClockView {
      */
     public ClockView(ClockModel clockModel, JLabel timeMiddleLabel) {
         clockModel.addObserver((o, arg) -> {
-            Integer event = (Integer) arg;
-            if (event == ClockModel.RESET_EVENT) {
+            int events = (Integer) arg;
+            if ((events & ClockModel.RESET_EVENT) != 0) {
                 timeMiddleLabel.setText(getTimeFormattedString(clockModel.getTime()));
-            } else if (event == ClockModel.UPDATE_TIME_EVENT) {
+            } else if ((events & ClockModel.UPDATE_TIME_EVENT) != 0) {
                 timeMiddleLabel.setText(getTimeFormattedString(clockModel.getTime()));
             }
         });
@@ -0,0 +1,188 @@
+package views;
+
+import engine.KeyStats;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Map;
+
+/**
+ * A keyboard coloured by how often each key was mistyped during the
+ * typing test, from green for no mistakes to red for a fifth or more of
+ * attempts. Each key also shows the mean time in milliseconds taken to
+ * reach it from the key before, and the slowest pairs of keys are listed
+ * below the keyboard. A key covers both the character it types and the
+ * character it types with shift held.
+ */
+public class KeyboardHeatmap extends JComponent {
+    private static final long serialVersionUID = 1L;
+    private static final String[] ROWS = {"`1234567890-=", "qwertyuiop[]\\", "asdfghjkl;'", "zxcvbnm,./"};
+    private static final String[] SHIFTED_ROWS = {"~!@#$%^&*()_+", "QWERTYUIOP{}|", "ASDFGHJKL:\"", "ZXCVBNM<>?"};
+    private static final double[] ROW_OFFSETS = {0, 0.5, 0.75, 1.25};
+    private static final int KEY_SIZE = 40, GAP = 4, UNIT = KEY_SIZE + GAP, SPACE_OFFSET = 3, SPACE_UNITS = 6;
+    private static final int SLOWEST_PAIRS = 5, MIN_PAIR_INTERVALS = 3;
+    private static final double MAX_ERROR_RATE = 0.2;
+    private static final Font TITLE_FONT = new Font("SansSerif", Font.BOLD, 16);
+    private static final Font KEY_FONT = new Font("SansSerif", Font.BOLD, 14);
+    private static final Font SMALL_FONT = new Font("SansSerif", Font.PLAIN, 11);
+    private static final Font TEXT_FONT = new Font("SansSerif", Font.PLAIN, 14);
+    private static final Color TEXT_COLOR = Color.decode("#333333");
+    private static final Color UNUSED_COLOR = Color.decode("#F9F9F9");
+    private static final Color BORDER_COLOR = Color.decode("#AAAAAA");
+    private static final Color[] HEAT_COLORS = new Color[11];
+
+    static {
+        for (int i = 0; i < HEAT_COLORS.length; i++) {
+            float hue = 1f / 3 * (1 - (float) i / (HEAT_COLORS.length - 1));
+            HEAT_COLORS[i] = new Color(Color.HSBtoRGB(hue, 0.5f, 0.95f));
+        }
+    }
+
+    private KeyStats keyStats;
+    private char[] slowestPrevious, slowestNext;
+    private double[] slowestIntervals;
+
+    /**
+     * Creates a heatmap without any key stats.
+     */
+    public KeyboardHeatmap() {
+        slowestPrevious = new char[SLOWEST_PAIRS];
+        slowestNext = new char[SLOWEST_PAIRS];
+        slowestIntervals = new double[SLOWEST_PAIRS];
+    }
+
+    /**
+     * Sets the key stats shown by this heatmap and repaints it.
+     *
+     * @param keyStats the key stats to show
+     */
+    public void setKeyStats(KeyStats keyStats) {
+        this.keyStats = keyStats;
+        repaint();
+    }
+
+    /**
+     * Paints the title, the keyboard and the slowest pairs of keys.
+     *
+     * @param g the graphics to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        if (keyStats == null)
+            return;
+        Map<?, ?> hints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        if (hints != null)
+            ((Graphics2D) g).addRenderingHints(hints);
+        Insets insets = getInsets();
+        int left = insets.left, top = insets.top;
+        g.setFont(TITLE_FONT);
+        g.setColor(TEXT_COLOR);
+        g.drawString("Mistakes and speed by key", left, top + g.getFontMetrics().getAscent());
+        top += 30;
+        for (int row = 0; row < ROWS.length; row++) {
+            int x = left + (int) (ROW_OFFSETS[row] * UNIT), y = top + row * UNIT;
+            for (int i = 0; i < ROWS[row].length(); i++)
+                paintKey(g, ROWS[row].charAt(i), SHIFTED_ROWS[row].charAt(i), x + i * UNIT, y, KEY_SIZE);
+        }
+        paintKey(g, ' ', ' ', left + SPACE_OFFSET * UNIT, top + ROWS.length * UNIT, SPACE_UNITS * UNIT - GAP);
+        int y = top + (ROWS.length + 1) * UNIT + 8;
+        g.setFont(SMALL_FONT);
+        g.setColor(TEXT_COLOR);
+        g.drawString(String.format("Colour: mistakes from 0%% (green) to %.0f%% or more (red). Number: mean ms from the key before.",
+                MAX_ERROR_RATE * 100), left, y);
+        g.setFont(TEXT_FONT);
+        g.drawString(getSlowestPairsText(), left, y + 24);
+    }
+
+    /**
+     * Paints a single key.
+     *
+     * @param g       the graphics to paint with
+     * @param c       the character the key types
+     * @param shifted the character the key types with shift held
+     * @param x       the x coordinate of the key
+     * @param y       the y coordinate of the key
+     * @param width   the width of the key
+     */
+    private void paintKey(Graphics g, char c, char shifted, int x, int y, int width) {
+        int attempts = keyStats.getAttempts(c) + (shifted != c ? keyStats.getAttempts(shifted) : 0);
+        int errors = keyStats.getErrors(c) + (shifted != c ? keyStats.getErrors(shifted) : 0);
+        int intervals = keyStats.getIntervalCount(c) + (shifted != c ? keyStats.getIntervalCount(shifted) : 0);
+        long intervalSum = keyStats.getIntervalSum(c) + (shifted != c ? keyStats.getIntervalSum(shifted) : 0);
+        if (attempts == 0) {
+            g.setColor(UNUSED_COLOR);
+        } else {
+            double rate = Math.min((double) errors / attempts / MAX_ERROR_RATE, 1);
+            g.setColor(HEAT_COLORS[(int) Math.round(rate * (HEAT_COLORS.length - 1))]);
+        }
+        g.fillRect(x, y, width, KEY_SIZE);
+        g.setColor(BORDER_COLOR);
+        g.drawRect(x, y, width - 1, KEY_SIZE - 1);
+        g.setColor(attempts == 0 ? BORDER_COLOR : TEXT_COLOR);
+        g.setFont(KEY_FONT);
+        g.drawString(c == ' ' ? "space" : String.valueOf(Character.toUpperCase(c)), x + 4, y + 4 + g.getFontMetrics().getAscent());
+        if (intervals > 0) {
+            g.setFont(SMALL_FONT);
+            String mean = String.valueOf(Math.round(intervalSum / 1e6 / intervals));
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(mean, x + width - 3 - metrics.stringWidth(mean), y + KEY_SIZE - 3 - metrics.getDescent());
+        }
+    }
+
+    /**
+     * Returns a line listing the pairs of keys with the slowest mean
+     * interval between them, among pairs measured often enough to tell.
+     *
+     * @return a line listing the slowest pairs of keys
+     */
+    private String getSlowestPairsText() {
+        int found = 0;
+        for (char previous = ' '; previous <= '~'; previous++) {
+            for (char c = ' '; c <= '~'; c++) {
+                if (keyStats.getPairIntervalCount(previous, c) < MIN_PAIR_INTERVALS)
+                    continue;
+                double interval = keyStats.getPairMeanInterval(previous, c);
+                // insert into the sorted list of the slowest pairs so far
+                int i = Math.min(found, SLOWEST_PAIRS - 1);
+                if (found == SLOWEST_PAIRS && interval <= slowestIntervals[i])
+                    continue;
+                while (i > 0 && slowestIntervals[i - 1] < interval) {
+                    slowestPrevious[i] = slowestPrevious[i - 1];
+                    slowestNext[i] = slowestNext[i - 1];
+                    slowestIntervals[i] = slowestIntervals[i - 1];
+                    i--;
+                }
+                slowestPrevious[i] = previous;
+                slowestNext[i] = c;
+                slowestIntervals[i] = interval;
+                found = Math.min(found + 1, SLOWEST_PAIRS);
+            }
+        }
+        if (found == 0)
+            return "Slowest pairs: not enough keystrokes yet";
+        StringBuilder text = new StringBuilder("Slowest pairs: ");
+        for (int i = 0; i < found; i++) {
+            if (i > 0)
+                text.append(",  ");
+            text.append(showChar(slowestPrevious[i])).append(showChar(slowestNext[i]))
+                    .append(' ').append(Math.round(slowestIntervals[i] / 1e6)).append(" ms");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns a character as shown in the list of pairs, with a space
+     * shown as an underscore.
+     *
+     * @param c the character
+     * @return the character as shown in the list of pairs
+     */
+    private static char showChar(char c) {
+        return c == ' ' ? '_' : c;
+    }
+}
@@ -0,0 +1,64 @@
+package views;
+
+import structs.InputLatency;
+import structs.LatencyHistogram;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * A debug overlay showing the median, 99th percentile and maximum time
+ * keystrokes of the current typing test take to reach each stage on their
+ * way to the screen. Meant to be used as the glass pane of a frame.
+ */
+public class LatencyOverlay extends JComponent {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_DELAY = 500;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+
+    /**
+     * Creates an overlay that refreshes itself twice a second.
+     */
+    public LatencyOverlay() {
+        setOpaque(false);
+        new Timer(REFRESH_DELAY, e -> repaint()).start();
+    }
+
+    /**
+     * Paints the latencies in the top right corner.
+     *
+     * @param g the graphics to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        String[] lines = {
+                "stage         p50     p99     max",
+                format("key>filter", InputLatency.KEY_TO_FILTER),
+                format("filter>shown", InputLatency.FILTER_TO_SHOWN),
+                format("key>shown", InputLatency.KEY_TO_SHOWN),
+        };
+        g.setFont(FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        int width = metrics.stringWidth(lines[0]) + 12, height = metrics.getHeight() * lines.length + 8;
+        int x = getWidth() - width - 8, y = 8;
+        g.setColor(BACKGROUND);
+        g.fillRect(x, y, width, height);
+        g.setColor(Color.white);
+        for (int i = 0; i < lines.length; i++)
+            g.drawString(lines[i], x + 6, y + 4 + metrics.getAscent() + i * metrics.getHeight());
+    }
+
+    /**
+     * Returns a line of the overlay giving the latencies of a stage in
+     * milliseconds.
+     *
+     * @param stage     the name of the stage
+     * @param histogram the latencies of the stage
+     * @return a line of the overlay
+     */
+    private static String format(String stage, LatencyHistogram histogram) {
+        return String.format("%-12s %6.2f  %6.2f  %6.2f", stage, histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6, histogram.getMax() / 1e6);
+    }
+}
@@ -26,11 +26,7 @@ public class SettingsView {
                 settingsWindow.getFrame().toFront();
                 settingsWindow.getFrame().setVisible(true);
                 settingsWindow.getFrame().requestFocus();
-                if (settingsModel.getDifficulty() == SettingsModel.EASY_DIFFICULTY) {
-                    settingsWindow.getDifficultyComboBox().setSelectedItem("Easy");
-                } else {
-                    settingsWindow.getDifficultyComboBox().setSelectedItem("Hard");
-                }
+                settingsWindow.getCorpusComboBox().setSelectedItem(settingsModel.getCorpus());
                 settingsWindow.getDurationField().setText(String.format("%d:%02d", settingsModel.getDuration() / 60, settingsModel.getDuration() % 60));
             } else if (event == SettingsModel.CLOSE_EVENT) {
                 settingsWindow.getFrame().setVisible(false);
@@ -18,15 +18,30 @@ public class StatsView {
      * @param correctNumberLabel      an observer
      * @param wrongNumberLabel        an observer
      * @param timeTakenLabel          an observer
+     * @param wpmSparkline            an observer
+     * @param informationPanel        an observer, hidden while the keyboard heatmap is shown
+     * @param keyboardHeatmap         an observer, shown once a typing test has ended
      */
-    public StatsView(StatsModel statsModel, JLabel wpmLabel, JLabel keystrokesResultsLabel, JLabel accuracyPercentageLabel, JLabel correctNumberLabel, JLabel wrongNumberLabel, JLabel timeTakenLabel) {
+    public StatsView(StatsModel statsModel, JLabel wpmLabel, JLabel keystrokesResultsLabel, JLabel accuracyPercentageLabel, JLabel correctNumberLabel, JLabel wrongNumberLabel, JLabel timeTakenLabel, WpmSparkline wpmSparkline, JPanel informationPanel, KeyboardHeatmap keyboardHeatmap) {
+        wpmSparkline.setSeries(statsModel.getWpmSeries());
+        keyboardHeatmap.setKeyStats(statsModel.getKeyStats());
         statsModel.addObserver((o, arg) -> {
-            wpmLabel.setText(statsModel.getWpm() + " WPM");
+            int events = (Integer) arg;
+            wpmSparkline.repaint();
+            if ((events & StatsModel.UPDATE_EVENT) == 0)
+                return;
+            wpmLabel.setText(statsModel.getWpm() + (statsModel.isFlagged() ? " WPM*" : " WPM"));
+            wpmLabel.setToolTipText(statsModel.isFlagged() ? "Includes pasted text" : null);
             keystrokesResultsLabel.setText(String.format("<html><font color=#333333>(<font color=#527A1E>%d</font> | <font color=red>%d</font>) &nbsp; %d</font></html>", statsModel.getCorrectKeystrokes(), statsModel.getWrongKeystrokes(), statsModel.getCorrectKeystrokes() + statsModel.getWrongKeystrokes()));
             accuracyPercentageLabel.setText(String.format("%.2f%%", statsModel.getAccuracy()));
             correctNumberLabel.setText(String.valueOf(statsModel.getCorrectWords()));
             wrongNumberLabel.setText(String.valueOf(statsModel.getWrongWords()));
             timeTakenLabel.setText(String.format("%d:%02d", statsModel.getTime() / 60, statsModel.getTime() % 60));
+            boolean ended = statsModel.getEndNanos() != 0;
+            if (keyboardHeatmap.isVisible() != ended) {
+                keyboardHeatmap.setVisible(ended);
+                informationPanel.setVisible(!ended);
+            }
         });
     }
 }
@@ -1,9 +1,7 @@
 package views;
 
 import models.TextBoxModel;
-
-import javax.swing.*;
-import java.awt.*;
+import structs.StartupTimer;
 
 /**
  * A viewer that adjusts the GUI related to the text box model.
@@ -16,76 +14,73 @@ public class TextBoxView {
      * @param topRowWordDisplay    an observer
      * @param bottomRowWordDisplay an observer
      */
-    public TextBoxView(TextBoxModel textBoxModel, JPanel topRowWordDisplay, JPanel bottomRowWordDisplay) {
+    public TextBoxView(TextBoxModel textBoxModel, WordRowDisplay topRowWordDisplay, WordRowDisplay bottomRowWordDisplay) {
+        topRowWordDisplay.showMessage("Loading words...");
         textBoxModel.addObserver((o, arg) -> {
-            Integer event = (Integer) arg;
-            if (event == TextBoxModel.RESET_EVENT) {
-                topRowWordDisplay.removeAll();
-                bottomRowWordDisplay.removeAll();
+            int events = (Integer) arg;
+            if ((events & TextBoxModel.RESET_EVENT) != 0) {
                 int maxWidth = topRowWordDisplay.getWidth() - topRowWordDisplay.getInsets().left - topRowWordDisplay.getInsets().right;
-                int additionalWidth = ((FlowLayout) topRowWordDisplay.getLayout()).getHgap();
-                textBoxModel.formRows(maxWidth, additionalWidth, createLabel(""));
-                textBoxModel.getRow(textBoxModel.getRowIndex()).forEach(word -> {
-                    JLabel label = createLabel(word.getWord());
-                    label.setForeground(word.getForeground());
-                    label.setBackground(word.getBackground());
-                    topRowWordDisplay.add(label);
-                });
-                if (textBoxModel.getRowIndex() + 1 < textBoxModel.getRowCount()) {
-                    textBoxModel.getRow(textBoxModel.getRowIndex() + 1).forEach(word -> {
-                        JLabel label = createLabel(word.getWord());
-                        label.setForeground(word.getForeground());
-                        label.setBackground(word.getBackground());
-                        bottomRowWordDisplay.add(label);
-                    });
-                }
-            } else if (event == TextBoxModel.WORD_UPDATE_EVENT) {
-                topRowWordDisplay.removeAll();
-                textBoxModel.getRow(textBoxModel.getRowIndex()).forEach(word -> {
-                    JLabel label = createLabel(word.getWord());
-                    label.setForeground(word.getForeground());
-                    label.setBackground(word.getBackground());
-                    topRowWordDisplay.add(label);
-                });
-            } else if (event == TextBoxModel.MOVE_ROWS_UPWARDS_EVENT) {
-                topRowWordDisplay.removeAll();
-                bottomRowWordDisplay.removeAll();
-                textBoxModel.getRow(textBoxModel.getRowIndex()).forEach(word -> {
-                    JLabel label = createLabel(word.getWord());
-                    label.setForeground(word.getForeground());
-                    label.setBackground(word.getBackground());
-                    topRowWordDisplay.add(label);
-                });
-                if (textBoxModel.getRowIndex() + 1 < textBoxModel.getRowCount()) {
-                    textBoxModel.getRow(textBoxModel.getRowIndex() + 1).forEach(word -> {
-                        JLabel label = createLabel(word.getWord());
-                        label.setForeground(word.getForeground());
-                        label.setBackground(word.getBackground());
-                        bottomRowWordDisplay.add(label);
-                    });
-                }
-            } else if (event == TextBoxModel.CLEAR_EVENT) {
-                topRowWordDisplay.removeAll();
-                bottomRowWordDisplay.removeAll();
+                textBoxModel.formRows(maxWidth, topRowWordDisplay.getMeasurer());
+                topRowWordDisplay.setToolTipText("Seed " + textBoxModel.getSeed());
+                showRows(textBoxModel, topRowWordDisplay, bottomRowWordDisplay);
+                StartupTimer.mark("words shown");
+            } else if ((events & TextBoxModel.CLEAR_EVENT) != 0) {
+                topRowWordDisplay.clear();
+                bottomRowWordDisplay.clear();
+            } else if ((events & TextBoxModel.LOADING_EVENT) != 0) {
+                topRowWordDisplay.showMessage("Loading words...");
+                bottomRowWordDisplay.clear();
+            } else if ((events & TextBoxModel.ERROR_EVENT) != 0) {
+                topRowWordDisplay.showMessage(textBoxModel.getErrorMessage());
+                bottomRowWordDisplay.clear();
+            } else if ((events & TextBoxModel.MOVE_ROWS_UPWARDS_EVENT) != 0) {
+                showRows(textBoxModel, topRowWordDisplay, bottomRowWordDisplay);
+            } else if ((events & TextBoxModel.WORD_UPDATE_EVENT) != 0) {
+                updateRow(textBoxModel, textBoxModel.getRowIndex(), topRowWordDisplay);
+                if (textBoxModel.getRowIndex() + 1 < textBoxModel.getRowCount())
+                    updateRow(textBoxModel, textBoxModel.getRowIndex() + 1, bottomRowWordDisplay);
             }
-            topRowWordDisplay.revalidate();
-            bottomRowWordDisplay.revalidate();
-            topRowWordDisplay.repaint();
-            bottomRowWordDisplay.repaint();
         });
     }
 
     /**
-     * Returns a label with an empty border, a font, and a given string.
+     * Shows the current row on the top display and the row after it on
+     * the bottom display.
+     *
+     * @param textBoxModel         the text box model
+     * @param topRowWordDisplay    the display of the current row
+     * @param bottomRowWordDisplay the display of the next row
+     */
+    private void showRows(TextBoxModel textBoxModel, WordRowDisplay topRowWordDisplay, WordRowDisplay bottomRowWordDisplay) {
+        showRow(textBoxModel, textBoxModel.getRowIndex(), topRowWordDisplay);
+        bottomRowWordDisplay.clear();
+        if (textBoxModel.getRowIndex() + 1 < textBoxModel.getRowCount())
+            showRow(textBoxModel, textBoxModel.getRowIndex() + 1, bottomRowWordDisplay);
+    }
+
+    /**
+     * Replaces the words of a display with the words of a given row.
+     *
+     * @param textBoxModel the text box model
+     * @param rowIndex     the index of the row
+     * @param display      the display to show the row on
+     */
+    private void showRow(TextBoxModel textBoxModel, int rowIndex, WordRowDisplay display) {
+        display.clear();
+        for (int position = textBoxModel.getRowStart(rowIndex); position < textBoxModel.getRowEnd(rowIndex); position++)
+            display.addWord(position, textBoxModel.getWord(position), textBoxModel.getWordState(position));
+    }
+
+    /**
+     * Updates the state of every word of a given row on a display. Only
+     * the words whose state changed are repainted.
      *
-     * @param str the string to be on the label
-     * @return a label with an empty border, a font, and a given string
+     * @param textBoxModel the text box model
+     * @param rowIndex     the index of the row
+     * @param display      the display showing the row
      */
-    private JLabel createLabel(String str) {
-        JLabel label = new JLabel(str);
-        label.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-        label.setFont(new Font("Times New Roman", Font.PLAIN, 32));
-        label.setOpaque(true);
-        return label;
+    private void updateRow(TextBoxModel textBoxModel, int rowIndex, WordRowDisplay display) {
+        for (int position = textBoxModel.getRowStart(rowIndex); position < textBoxModel.getRowEnd(rowIndex); position++)
+            display.setState(position, textBoxModel.getWordState(position));
     }
 }
@@ -0,0 +1,159 @@
+package views;
+
+import structs.WordMeasurer;
+import structs.WordPalette;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A panel that paints a single row of words itself instead of holding a
+ * label per word. The position and width of every word are kept when the
+ * row is set, so changing the state of a word only repaints the rectangle
+ * of that word and allocates nothing.
+ */
+public class WordRowDisplay extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final Font FONT = new Font("Times New Roman", Font.PLAIN, 32);
+    private static final int HORIZONTAL_PADDING = 5, VERTICAL_PADDING = 2, GAP = 5;
+
+    private WordMeasurer measurer;
+    private String[] words;
+    private byte[] states;
+    private int[] xs, widths;
+    private int firstPosition, count;
+    private String message;
+
+    /**
+     * Creates an empty display.
+     */
+    public WordRowDisplay() {
+        setLayout(null);
+        words = new String[32];
+        states = new byte[32];
+        xs = new int[32];
+        widths = new int[32];
+    }
+
+    /**
+     * Returns the measurer of the width a word takes up on this display,
+     * including the gap before the next word.
+     *
+     * @return the measurer of the width a word takes up on this display
+     */
+    public WordMeasurer getMeasurer() {
+        if (measurer == null)
+            measurer = new WordMeasurer(getFontMetrics(FONT), 2 * HORIZONTAL_PADDING + GAP);
+        return measurer;
+    }
+
+    /**
+     * Removes every word and message from this display.
+     */
+    public void clear() {
+        Arrays.fill(words, 0, count, null);
+        count = 0;
+        message = null;
+        repaint();
+    }
+
+    /**
+     * Removes every word from this display and shows a message in their
+     * place.
+     *
+     * @param message the message
+     */
+    public void showMessage(String message) {
+        clear();
+        this.message = message;
+    }
+
+    /**
+     * Appends a word after the last word of this display. The first word
+     * added after clearing the display sets the position of the row.
+     *
+     * @param position the position of the word from the start of the test
+     * @param word     the word
+     * @param state    the state of the word
+     */
+    public void addWord(int position, String word, byte state) {
+        if (count == words.length) {
+            words = Arrays.copyOf(words, count * 2);
+            states = Arrays.copyOf(states, count * 2);
+            xs = Arrays.copyOf(xs, count * 2);
+            widths = Arrays.copyOf(widths, count * 2);
+        }
+        if (count == 0)
+            firstPosition = position;
+        xs[count] = count == 0 ? getInsets().left + GAP : xs[count - 1] + widths[count - 1] + GAP;
+        widths[count] = getMeasurer().getWidth(word) - GAP;
+        words[count] = word;
+        states[count] = state;
+        repaintWord(count++);
+    }
+
+    /**
+     * Sets the state of a word and repaints only that word. Positions that
+     * are not on this display are ignored.
+     *
+     * @param position the position of the word from the start of the test
+     * @param state    the new state of the word
+     */
+    public void setState(int position, byte state) {
+        int index = position - firstPosition;
+        if (index < 0 || index >= count || states[index] == state)
+            return;
+        states[index] = state;
+        repaintWord(index);
+    }
+
+    /**
+     * Repaints the rectangle of the word at a given index.
+     *
+     * @param index the index of the word on this display
+     */
+    private void repaintWord(int index) {
+        repaint(xs[index], getInsets().top, widths[index], getWordHeight());
+    }
+
+    /**
+     * Returns the height of the rectangle of a word.
+     *
+     * @return the height of the rectangle of a word
+     */
+    private int getWordHeight() {
+        return getFontMetrics(FONT).getHeight() + 2 * VERTICAL_PADDING;
+    }
+
+    /**
+     * Paints the background, then every word intersecting the clip.
+     *
+     * @param g the graphics to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Map<?, ?> hints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        if (hints != null)
+            ((Graphics2D) g).addRenderingHints(hints);
+        g.setFont(FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        int top = getInsets().top, height = getWordHeight(), baseline = top + VERTICAL_PADDING + metrics.getAscent();
+        if (message != null) {
+            g.setColor(Color.gray);
+            g.drawString(message, getInsets().left + GAP + HORIZONTAL_PADDING, baseline);
+            return;
+        }
+        Rectangle clip = g.getClipBounds();
+        for (int i = 0; i < count; i++) {
+            if (clip != null && (xs[i] + widths[i] <= clip.x || xs[i] >= clip.x + clip.width))
+                continue;
+            g.setColor(WordPalette.getBackground(states[i]));
+            g.fillRect(xs[i], top, widths[i], height);
+            g.setColor(WordPalette.getForeground(states[i]));
+            g.drawString(words[i], xs[i] + HORIZONTAL_PADDING, baseline);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package views;
+
+import structs.Timer;
+import structs.WpmSeries;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small graph of the speed of the user over the typing test. The raw
+ * and net words per minute are drawn as lines stretched across the width
+ * of the graph, and every sample in which the user made a mistake is
+ * marked along the bottom. The speed over the first second swings too
+ * widely to be worth scaling the graph to, so it is left out of the scale
+ * and cut off at the top. The lines are drawn a segment at a time straight
+ * from the series, so painting allocates nothing.
+ */
+public class WpmSparkline extends JComponent {
+    private static final long serialVersionUID = 1L;
+    private static final Color RAW_COLOR = Color.decode("#4E80A0");
+    private static final Color NET_COLOR = Color.decode("#527A1E");
+    private static final Color ERROR_COLOR = Color.red;
+    private static final int PADDING = 4, ERROR_MARK_HEIGHT = 4, WPM_STEP = 20;
+    private static final int UNSCALED_SAMPLES = (int) (TimeUnit.SECONDS.toNanos(1) / Timer.SAMPLE_INTERVAL);
+
+    private WpmSeries series;
+    private Insets insets = new Insets(0, 0, 0, 0);
+
+    /**
+     * Sets the series shown by this graph and repaints it.
+     *
+     * @param series the series to show
+     */
+    public void setSeries(WpmSeries series) {
+        this.series = series;
+        repaint();
+    }
+
+    /**
+     * Paints the mistakes, then the raw wpm, then the net wpm over it.
+     *
+     * @param g the graphics to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        getInsets(insets);
+        int left = insets.left + PADDING, bottom = getHeight() - insets.bottom - PADDING;
+        int width = getWidth() - insets.left - insets.right - 2 * PADDING;
+        int height = bottom - insets.top - PADDING;
+        int size = series == null ? 0 : series.size();
+        if (size < 2 || width < 2 || height < 1)
+            return;
+        // round the scale up so that the lines do not jump every time the speed peaks
+        float max = WPM_STEP;
+        for (int i = size > 2 * UNSCALED_SAMPLES ? UNSCALED_SAMPLES : 0; i < size; i++)
+            max = Math.max(max, series.getRawWpm(i));
+        max = (float) Math.ceil(max / WPM_STEP) * WPM_STEP;
+        int points = Math.min(size, width);
+        g.setColor(ERROR_COLOR);
+        int previousErrors = 0;
+        for (int i = 0; i < points; i++) {
+            int errors = series.getErrors(getIndex(i, points, size));
+            if (errors > previousErrors)
+                g.drawLine(getX(i, points, left, width), bottom, getX(i, points, left, width), bottom - ERROR_MARK_HEIGHT);
+            previousErrors = errors;
+        }
+        ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int previousX = left, previousRawY = getY(series.getRawWpm(0), max, bottom, height);
+        int previousNetY = getY(series.getNetWpm(0), max, bottom, height);
+        for (int i = 1; i < points; i++) {
+            int index = getIndex(i, points, size), x = getX(i, points, left, width);
+            int rawY = getY(series.getRawWpm(index), max, bottom, height);
+            int netY = getY(series.getNetWpm(index), max, bottom, height);
+            g.setColor(RAW_COLOR);
+            g.drawLine(previousX, previousRawY, x, rawY);
+            g.setColor(NET_COLOR);
+            g.drawLine(previousX, previousNetY, x, netY);
+            previousX = x;
+            previousRawY = rawY;
+            previousNetY = netY;
+        }
+    }
+
+    /**
+     * Returns the index of the sample shown at a point. With more samples
+     * than pixels, each point shows the last sample of its column.
+     *
+     * @param point  the index of the point
+     * @param points the number of points
+     * @param size   the number of samples
+     * @return the index of the sample shown at the point
+     */
+    private static int getIndex(int point, int points, int size) {
+        return points == size ? point : (int) ((long) (point + 1) * size / points) - 1;
+    }
+
+    /**
+     * Returns the x coordinate of a point.
+     *
+     * @param point  the index of the point
+     * @param points the number of points
+     * @param left   the x coordinate of the first point
+     * @param width  the width the points are spread across
+     * @return the x coordinate of the point
+     */
+    private static int getX(int point, int points, int left, int width) {
+        return left + (int) ((long) point * (width - 1) / (points - 1));
+    }
+
+    /**
+     * Returns the y coordinate of a speed.
+     *
+     * @param wpm    the speed in words per minute
+     * @param max    the speed at the top of the graph
+     * @param bottom the y coordinate of a speed of zero
+     * @param height the height of the graph
+     * @return the y coordinate of the speed
+     */
+    private static int getY(float wpm, float max, int bottom, int height) {
+        return bottom - Math.round(Math.min(Math.max(wpm, 0), max) / max * height);
+    }
+}
@@ -1,5 +1,7 @@
 package windows;
 
+import structs.WordDatabase;
+
 import javax.swing.*;
 import java.awt.*;
 
@@ -7,7 +9,7 @@ import java.awt.*;
  * The window for the settings of the typing test application.
  */
 public class SettingsWindow {
-    private JComboBox<String> difficultyComboBox;
+    private JComboBox<String> corpusComboBox;
     private JTextField durationField;
     private JButton applyButton;
     private JFrame frame;
@@ -83,52 +85,52 @@ public class SettingsWindow {
         durationPanel.add(durationLabel, BorderLayout.WEST);
         durationPanel.add(durationField, BorderLayout.EAST);
 
-        final int WIDTH_DIFFICULTY_COMBO_BOX = 100, HEIGHT_DIFFICULTY_COMBO_BOX = 40;
-        difficultyComboBox = new JComboBox<>();
-        difficultyComboBox.addItem("Easy");
-        difficultyComboBox.addItem("Hard");
-        difficultyComboBox.setFont(new Font("SansSerif", Font.PLAIN, 14));
-        difficultyComboBox.setPreferredSize(new Dimension(WIDTH_DIFFICULTY_COMBO_BOX, HEIGHT_DIFFICULTY_COMBO_BOX));
-        difficultyComboBox.setMinimumSize(new Dimension(WIDTH_DIFFICULTY_COMBO_BOX, HEIGHT_DIFFICULTY_COMBO_BOX));
-        difficultyComboBox.setMaximumSize(new Dimension(WIDTH_DIFFICULTY_COMBO_BOX, HEIGHT_DIFFICULTY_COMBO_BOX));
-        difficultyComboBox.setForeground(Color.decode("#333333"));
-
-        JPanel difficultyComboBoxPanel = new JPanel();
-        difficultyComboBoxPanel.setOpaque(false);
-        difficultyComboBoxPanel.add(difficultyComboBox);
-
-        JLabel difficultyLabel = new JLabel("Difficulty");
-        difficultyLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
-        difficultyLabel.setBorder(BorderFactory.createEmptyBorder(0, 15, 0, 0));
-        difficultyLabel.setForeground(Color.decode("#333333"));
-
-        final int WIDTH_DIFFICULTY_PANEL = 300, HEIGHT_DIFFICULTY_PANEL = 50;
-        JPanel difficultyPanel = new JPanel();
-        difficultyPanel.setPreferredSize(new Dimension(WIDTH_DIFFICULTY_PANEL, HEIGHT_DIFFICULTY_PANEL));
-        difficultyPanel.setMinimumSize(new Dimension(WIDTH_DIFFICULTY_PANEL, HEIGHT_DIFFICULTY_PANEL));
-        difficultyPanel.setMaximumSize(new Dimension(WIDTH_DIFFICULTY_PANEL, HEIGHT_DIFFICULTY_PANEL));
-        difficultyPanel.setOpaque(true);
-        difficultyPanel.setBackground(Color.white);
-        difficultyPanel.setAlignmentX(SwingConstants.LEFT);
-        difficultyPanel.setLayout(new BorderLayout());
-        difficultyPanel.add(difficultyLabel, BorderLayout.WEST);
-        difficultyPanel.add(difficultyComboBoxPanel, BorderLayout.EAST);
+        final int WIDTH_CORPUS_COMBO_BOX = 150, HEIGHT_CORPUS_COMBO_BOX = 40;
+        corpusComboBox = new JComboBox<>();
+        for (String name : WordDatabase.getInstance().getCorpusNames())
+            corpusComboBox.addItem(name);
+        corpusComboBox.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        corpusComboBox.setPreferredSize(new Dimension(WIDTH_CORPUS_COMBO_BOX, HEIGHT_CORPUS_COMBO_BOX));
+        corpusComboBox.setMinimumSize(new Dimension(WIDTH_CORPUS_COMBO_BOX, HEIGHT_CORPUS_COMBO_BOX));
+        corpusComboBox.setMaximumSize(new Dimension(WIDTH_CORPUS_COMBO_BOX, HEIGHT_CORPUS_COMBO_BOX));
+        corpusComboBox.setForeground(Color.decode("#333333"));
+
+        JPanel corpusComboBoxPanel = new JPanel();
+        corpusComboBoxPanel.setOpaque(false);
+        corpusComboBoxPanel.add(corpusComboBox);
+
+        JLabel corpusLabel = new JLabel("Words");
+        corpusLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+        corpusLabel.setBorder(BorderFactory.createEmptyBorder(0, 15, 0, 0));
+        corpusLabel.setForeground(Color.decode("#333333"));
+
+        final int WIDTH_CORPUS_PANEL = 300, HEIGHT_CORPUS_PANEL = 50;
+        JPanel corpusPanel = new JPanel();
+        corpusPanel.setPreferredSize(new Dimension(WIDTH_CORPUS_PANEL, HEIGHT_CORPUS_PANEL));
+        corpusPanel.setMinimumSize(new Dimension(WIDTH_CORPUS_PANEL, HEIGHT_CORPUS_PANEL));
+        corpusPanel.setMaximumSize(new Dimension(WIDTH_CORPUS_PANEL, HEIGHT_CORPUS_PANEL));
+        corpusPanel.setOpaque(true);
+        corpusPanel.setBackground(Color.white);
+        corpusPanel.setAlignmentX(SwingConstants.LEFT);
+        corpusPanel.setLayout(new BorderLayout());
+        corpusPanel.add(corpusLabel, BorderLayout.WEST);
+        corpusPanel.add(corpusComboBoxPanel, BorderLayout.EAST);
 
         JPanel mainPanel = new JPanel();
         mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
-        mainPanel.add(difficultyPanel);
+        mainPanel.add(corpusPanel);
         mainPanel.add(durationPanel);
         mainPanel.add(applyPanel);
         return mainPanel;
     }
 
     /**
-     * Returns the difficulty combo box.
+     * Returns the combo box listing the available corpora.
      *
-     * @return the difficulty combo box
+     * @return the combo box listing the available corpora
      */
-    public JComboBox<String> getDifficultyComboBox() {
-        return difficultyComboBox;
+    public JComboBox<String> getCorpusComboBox() {
+        return corpusComboBox;
     }
 
     /**
@@ -5,6 +5,7 @@ import controllers.RefreshController;
 import controllers.SettingsController;
 import controllers.UserInputController;
 import models.*;
+import structs.StartupTimer;
 import views.*;
 
 import javax.swing.*;
@@ -16,10 +17,13 @@ import java.awt.*;
 public class TypingTestWindow {
     private static final int WIDTH = 1000, HEIGHT = 650;
 
-    private JPanel topRowWordDisplay, bottomRowWordDisplay;
+    private WordRowDisplay topRowWordDisplay, bottomRowWordDisplay;
     private JTextField inputField;
     private JLabel timeMiddleLabel, wpmLabel, keystrokesResultsLabel, accuracyPercentageLabel, correctNumberLabel, wrongNumberLabel, timeTakenLabel;
     private JButton refreshButton, settingsButton;
+    private WpmSparkline wpmSparkline;
+    private JPanel informationPanel;
+    private KeyboardHeatmap keyboardHeatmap;
 
     /**
      * Sets up the JFrame and loads the GUI.
@@ -40,6 +44,10 @@ public class TypingTestWindow {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLocationRelativeTo(null); // center JFrame in the middle of the screen
         frame.add(createMainPanel());
+        if (Boolean.getBoolean("typingtest.latencyOverlay")) {
+            frame.setGlassPane(new LatencyOverlay());
+            frame.getGlassPane().setVisible(true);
+        }
 
         ToolTipManager.sharedInstance().setInitialDelay(0);
 
@@ -54,7 +62,7 @@ public class TypingTestWindow {
         ClockView clockView = new ClockView(clockModel, timeMiddleLabel);
         UserInputView userInputView = new UserInputView(userInputModel, inputField);
         TextBoxView textBoxView = new TextBoxView(textBoxModel, topRowWordDisplay, bottomRowWordDisplay);
-        StatsView statsView = new StatsView(statsModel, wpmLabel, keystrokesResultsLabel, accuracyPercentageLabel, correctNumberLabel, wrongNumberLabel, timeTakenLabel);
+        StatsView statsView = new StatsView(statsModel, wpmLabel, keystrokesResultsLabel, accuracyPercentageLabel, correctNumberLabel, wrongNumberLabel, timeTakenLabel, wpmSparkline, informationPanel, keyboardHeatmap);
 
         UserInputController userInputController = new UserInputController(userInputModel, textBoxModel, clockModel, statsModel, inputField);
         SettingsController settingsController = new SettingsController(SettingsModel.getInstance(), settingsButton, settingsWindow);
@@ -63,6 +71,8 @@ public class TypingTestWindow {
 
         frame.pack();
         frame.setVisible(true);
+        StartupTimer.mark("window visible");
+        refreshController.refresh();
     }
 
     /**
@@ -71,7 +81,12 @@ public class TypingTestWindow {
      * @return the main panel
      */
     private JPanel createMainPanel() {
-        JPanel mainPanel = new JPanel();
+        JPanel mainPanel = new JPanel() {
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                StartupTimer.mark("first paint");
+            }
+        };
         mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
         mainPanel.setBackground(Color.decode("#BDDDFF"));
         mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
@@ -91,16 +106,14 @@ public class TypingTestWindow {
      */
     private JPanel createTopPanel() {
         final int WIDTH = 910, HEIGHT = 110;
-        topRowWordDisplay = new JPanel();
-        topRowWordDisplay.setLayout(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        topRowWordDisplay = new WordRowDisplay();
         topRowWordDisplay.setPreferredSize(new Dimension(WIDTH, HEIGHT / 2));
         topRowWordDisplay.setMaximumSize(new Dimension(WIDTH, HEIGHT / 2));
         topRowWordDisplay.setMinimumSize(new Dimension(WIDTH, HEIGHT / 2));
         topRowWordDisplay.setBorder(BorderFactory.createEmptyBorder(9, 6, 3, 6));
         topRowWordDisplay.setBackground(Color.white);
 
-        bottomRowWordDisplay = new JPanel();
-        bottomRowWordDisplay.setLayout(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        bottomRowWordDisplay = new WordRowDisplay();
         bottomRowWordDisplay.setPreferredSize(new Dimension(WIDTH, HEIGHT / 2));
         bottomRowWordDisplay.setMaximumSize(new Dimension(WIDTH, HEIGHT / 2));
         bottomRowWordDisplay.setMinimumSize(new Dimension(WIDTH, HEIGHT / 2));
@@ -299,7 +312,7 @@ public class TypingTestWindow {
         wpmInfoPanel.add(wpmInfoBodyLabel);
 
         final int WIDTH_INFORMATION_PANEL = 620, HEIGHT_INFORMATION_PANEL = 365;
-        JPanel informationPanel = new JPanel();
+        informationPanel = new JPanel();
         informationPanel.setPreferredSize(new Dimension(WIDTH_INFORMATION_PANEL, HEIGHT_INFORMATION_PANEL));
         informationPanel.setMaximumSize(new Dimension(WIDTH_INFORMATION_PANEL, HEIGHT_INFORMATION_PANEL));
         informationPanel.setMinimumSize(new Dimension(WIDTH_INFORMATION_PANEL, HEIGHT_INFORMATION_PANEL));
@@ -312,6 +325,15 @@ public class TypingTestWindow {
         informationPanel.add(wpmInfoPanel);
         informationPanel.add(keystrokeInfoPanel);
 
+        keyboardHeatmap = new KeyboardHeatmap();
+        keyboardHeatmap.setPreferredSize(new Dimension(WIDTH_INFORMATION_PANEL, HEIGHT_INFORMATION_PANEL));
+        keyboardHeatmap.setMaximumSize(new Dimension(WIDTH_INFORMATION_PANEL, HEIGHT_INFORMATION_PANEL));
+        keyboardHeatmap.setMinimumSize(new Dimension(WIDTH_INFORMATION_PANEL, HEIGHT_INFORMATION_PANEL));
+        keyboardHeatmap.setOpaque(true);
+        keyboardHeatmap.setBackground(Color.decode("#DCEBFB"));
+        keyboardHeatmap.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        keyboardHeatmap.setVisible(false);
+
         final int WIDTH_BOTTOM_PANEL = 910, HEIGHT_BOTTOM_PANEL = 365;
         JPanel bottomPanel = new JPanel();
         bottomPanel.setOpaque(false);
@@ -323,6 +345,7 @@ public class TypingTestWindow {
         bottomPanel.add(createResultsPanel());
         bottomPanel.add(Box.createRigidArea(new Dimension(10, 0)));
         bottomPanel.add(informationPanel);
+        bottomPanel.add(keyboardHeatmap);
         return bottomPanel;
     }
 
@@ -480,6 +503,17 @@ public class TypingTestWindow {
         timePanel.add(timeLabel, BorderLayout.WEST);
         timePanel.add(timeTakenLabel, BorderLayout.EAST);
 
+        final int WIDTH_SPARKLINE = 280, HEIGHT_SPARKLINE = 40;
+        wpmSparkline = new WpmSparkline();
+        wpmSparkline.setPreferredSize(new Dimension(WIDTH_SPARKLINE, HEIGHT_SPARKLINE));
+        wpmSparkline.setMaximumSize(new Dimension(WIDTH_SPARKLINE, HEIGHT_SPARKLINE));
+        wpmSparkline.setMinimumSize(new Dimension(WIDTH_SPARKLINE, HEIGHT_SPARKLINE));
+        wpmSparkline.setOpaque(true);
+        wpmSparkline.setBackground(Color.decode("#F9F9F9"));
+        wpmSparkline.setBorder(BorderFactory.createMatteBorder(1, 0, 1, 0, Color.decode("#DDDDDD")));
+        wpmSparkline.setAlignmentX(SwingConstants.LEFT);
+        wpmSparkline.setToolTipText("Net (green) and raw (blue) WPM over the test, with mistakes in red");
+
         final int WIDTH_RESULTS_PANEL = 280, HEIGHT_RESULTS_PANEL = 365;
         JPanel resultsPanel = new JPanel();
         resultsPanel.setOpaque(false);
@@ -494,6 +528,7 @@ public class TypingTestWindow {
         resultsPanel.add(correctWordsPanel);
         resultsPanel.add(wrongWordsPanel);
         resultsPanel.add(timePanel);
+        resultsPanel.add(wpmSparkline);
         return resultsPanel;
     }
 
@@ -503,7 +538,7 @@ public class TypingTestWindow {
      *
      * @return the top row panel
      */
-    public JPanel getTopRowWordDisplay() {
+    public WordRowDisplay getTopRowWordDisplay() {
         return topRowWordDisplay;
     }
 
@@ -513,7 +548,7 @@ public class TypingTestWindow {
      *
      * @return the bottom row panel
      */
-    public JPanel getBottomRowWordDisplay() {
+    public WordRowDisplay getBottomRowWordDisplay() {
         return bottomRowWordDisplay;
     }
 
@@ -603,6 +638,28 @@ public class TypingTestWindow {
         return timeTakenLabel;
     }
 
+    /**
+     * Returns the sparkline that graphs the speed of the user
+     * over the typing test.
+     *
+     * @return the sparkline that graphs the speed of the user
+     * over the typing test
+     */
+    public WpmSparkline getWpmSparkline() {
+        return wpmSparkline;
+    }
+
+    /**
+     * Returns the keyboard heatmap that shows the mistakes and speed
+     * of every key once a typing test has ended.
+     *
+     * @return the keyboard heatmap that shows the mistakes and speed
+     * of every key once a typing test has ended
+     */
+    public KeyboardHeatmap getKeyboardHeatmap() {
+        return keyboardHeatmap;
+    }
+
     /**
      * Returns the refresh button that refreshes the text for
      * a new typing test.